@@ -0,0 +1,102 @@
+package travel;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Counts and filtered averages from the city and vehicle bitmaps, against filtering a stream of rows
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BitmapBenchmark {
+    @Param({"1000", "100000", "10000000"})
+    public int rows;
+
+    private Path dataset;
+    private PrintStream console;
+    private TravelRepository travels;
+    private Session session;
+    private String city;
+    private QueryPlan vehiclePlan;
+    private QueryPlan cityVehiclePlan;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataset = Datasets.create(rows);
+        console = Datasets.silence();
+        session = new Session(System.out);
+        travels = Main.readDataFromFile();
+        city = Datasets.CITIES[0];
+        vehiclePlan = travels.plan(Main.parseQuery("vehicle = bus"));
+        cityVehiclePlan = travels.plan(Main.parseQuery("city = " + city.toLowerCase() + " and vehicle = plane"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(console);
+        Datasets.delete(dataset);
+    }
+
+    @Benchmark
+    public long countVehicleStream() {
+        return travels.stream().filter(travel -> travel.getVehicle() == VehicleType.BUS).count();
+    }
+
+    @Benchmark
+    public int countVehicleBitmap() {
+        return travels.count(vehiclePlan);
+    }
+
+    @Benchmark
+    public long countCityVehicleStream() {
+        return travels.stream()
+                .filter(travel -> travel.getCity().equalsIgnoreCase(city) && travel.getVehicle() == VehicleType.PLANE)
+                .count();
+    }
+
+    @Benchmark
+    public int countCityVehicleBitmap() {
+        return travels.count(cityVehiclePlan);
+    }
+
+    @Benchmark
+    public Object averageCityVehicleStream() {
+        return travels.stream()
+                .filter(travel -> travel.getCity().equalsIgnoreCase(city) && travel.getVehicle() == VehicleType.PLANE)
+                .mapToDouble(Travel::getPrice).average();
+    }
+
+    @Benchmark
+    public double averageCityVehicleBitmap() {
+        return travels.aggregate(cityVehiclePlan).getAverage();
+    }
+
+    @Benchmark
+    public Object averageVehicleStream() {
+        return travels.stream().filter(travel -> travel.getVehicle() == VehicleType.PLANE)
+                .mapToDouble(Travel::getPrice).average();
+    }
+
+    @Benchmark
+    public void averageVehicleCommand() {
+        Main.calculateAveragePrice(new String[]{"vehicle = plane"}, travels, session);
+    }
+}
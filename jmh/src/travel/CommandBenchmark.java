@@ -0,0 +1,193 @@
+package travel;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Every command of the dispatch loop, plus the file reads and writes behind them
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CommandBenchmark {
+    @Param({"1000", "100000", "10000000"})
+    public int rows;
+
+    private Path dataset;
+    private PrintStream console;
+
+    TravelRepository travels;
+    Session session;
+    Travel original;
+    private String[] addArgs;
+    private String[] editArgs;
+    private String[] deleteArgs;
+    private String[] findArgs;
+    private String[] queryArgs;
+    private String[] activeArgs;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataset = Datasets.create(rows);
+        console = Datasets.silence();
+        session = new Session(System.out);
+        travels = Main.readDataFromFile();
+        original = travels.findById(Datasets.BENCHMARK_ID);
+        addArgs = Main.formatTravel(original).toLowerCase().split(Main.DELIMITER);
+        editArgs = new String[]{String.valueOf(Datasets.BENCHMARK_ID), "", "", "", "123.45", ""};
+        deleteArgs = new String[]{String.valueOf(Datasets.BENCHMARK_ID)};
+        findArgs = new String[]{Main.DECIMAL_FORMAT.get().format(Datasets.VEHICLE_PRICES[VehicleType.BUS.ordinal()])};
+        queryArgs = new String[]{"city = " + Datasets.CITIES[Datasets.CITIES.length - 1].toLowerCase()
+                + " and vehicle = plane and days >= 5"};
+        activeArgs = new String[]{"active = " + original.getDate().format(Main.DATE_FORMATTER)};
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(console);
+        Datasets.delete(dataset);
+    }
+
+    // The benchmark row is missing before every add
+    @State(Scope.Thread)
+    public static class Removed {
+        @Setup(Level.Invocation)
+        public void remove(CommandBenchmark benchmark) {
+            benchmark.travels.remove(Datasets.BENCHMARK_ID);
+        }
+    }
+
+    // The benchmark row is present before every delete
+    @State(Scope.Thread)
+    public static class Restored {
+        @Setup(Level.Invocation)
+        public void restore(CommandBenchmark benchmark) {
+            benchmark.travels.add(benchmark.original);
+        }
+    }
+
+    // Rows are back in ID order before every compact
+    @State(Scope.Thread)
+    public static class Shuffled {
+        @Setup(Level.Invocation)
+        public void sortById(CommandBenchmark benchmark) {
+            benchmark.travels.sortById();
+        }
+    }
+
+    // Print order of the benchmark session is by price
+    @State(Scope.Thread)
+    public static class Sorted {
+        @Setup(Level.Trial)
+        public void sort(CommandBenchmark benchmark) {
+            Main.sortTravels(new String[]{"price"}, benchmark.travels, benchmark.session);
+        }
+    }
+
+    @Benchmark
+    public TravelRepository readDataFromFile() {
+        return Main.readDataFromFile();
+    }
+
+    @Benchmark
+    public void updateFile() {
+        Main.updateFile(travels, session);
+    }
+
+    @Benchmark
+    public void addTravel(Removed removed) {
+        Main.addTravel(travels, addArgs, session);
+    }
+
+    @Benchmark
+    public void editTravel() {
+        Main.editTravel(travels, editArgs, session);
+    }
+
+    @Benchmark
+    public void deleteTravel(Restored restored) {
+        Main.deleteTravel(travels, deleteArgs, session);
+    }
+
+    @Benchmark
+    public void sortTravels() {
+        Main.sortTravels(new String[]{"price"}, travels, session);
+    }
+
+    @Benchmark
+    public void printTravelsSorted(Sorted sorted) {
+        Main.printTravels(new String[0], travels, session);
+    }
+
+    @Benchmark
+    public void compactTravels(Shuffled shuffled) {
+        Main.compactTravels(new String[0], travels, session);
+    }
+
+    @Benchmark
+    public void findTravels() {
+        Main.findTravels(findArgs, travels, session);
+    }
+
+    @Benchmark
+    public void calculateAveragePrice() {
+        Main.calculateAveragePrice(new String[0], travels, session);
+    }
+
+    @Benchmark
+    public void printTable() {
+        Main.printTable(travels, session);
+    }
+
+    @Benchmark
+    public void printTravelsPage() {
+        Main.printTravels(new String[]{"limit=20", "offset=1000"}, travels, session);
+    }
+
+    @Benchmark
+    public void findTravelsPage() {
+        Main.findTravels(new String[]{findArgs[0], "limit=20"}, travels, session);
+    }
+
+    @Benchmark
+    public void findTravelsQuery() {
+        Main.findTravels(queryArgs, travels, session);
+    }
+
+    @Benchmark
+    public void countTravelsActive() {
+        Main.countTravels(activeArgs, travels, session);
+    }
+
+    @Benchmark
+    public void findTravelsActive() {
+        Main.findTravels(activeArgs, travels, session);
+    }
+
+    @Benchmark
+    public void busiestDay() {
+        Main.busiestDay(new String[0], travels, session);
+    }
+
+    @Benchmark
+    public void listCities() {
+        Main.listCities(new String[]{"r"}, travels, session);
+    }
+}
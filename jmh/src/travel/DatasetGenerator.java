@@ -0,0 +1,209 @@
+package travel;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+// Synthetic data for tests at scale: writes a valid data file of --rows=N rows to --out=PATH and, with
+// --script=FILE, a matching command script of --commands=N lines, --write-ratio of them edits and del/add
+// pairs. Cities follow a Zipf distribution over --cities=N names, dates peak in summer and December and grow
+// year over year, and prices are log-normal around the vehicle's base price; --seed=N makes it repeatable.
+// Existing files are only replaced with --overwrite:
+//
+//     java -cp jmh/target/benchmarks.jar travel.DatasetGenerator --rows=1000000 --out=big.csv --script=big.txt
+public final class DatasetGenerator {
+    private static final LocalDate FIRST_DATE = LocalDate.of(2020, 1, 1);
+    private static final int YEARS = 5;
+
+    // Synthetic city names beyond Datasets.CITIES: prefix and suffix, then a qualifier word
+    private static final String[] PREFIXES = {
+            "Nor", "Sud", "Wes", "Ost", "Alt", "Neu", "Ber", "Kal", "Mar", "Sal", "Tor", "Val", "Lin", "Rav", "Gor", "Pol"
+    };
+    private static final String[] SUFFIXES = {
+            "burg", "ville", "grad", "stad", "ford", "heim", "polis", "mouth",
+            "field", "dorf", "port", "wick", "by", "holm", "ton", "ica"
+    };
+    private static final String[] QUALIFIERS = {"New", "Old", "Upper", "Lower", "Saint", "North", "South", "Port"};
+    public static final int MAX_CITIES = Datasets.CITIES.length + PREFIXES.length * SUFFIXES.length * (QUALIFIERS.length + 1);
+
+    private final Random random;
+    private final int rows;
+    private final String[] cities;
+    private final double[] cityWeights;
+
+    public DatasetGenerator(int rows, int cityCount, long seed) {
+        this.random = new Random(seed);
+        this.rows = rows;
+        cities = new String[Math.max(1, Math.min(cityCount, MAX_CITIES))];
+        cityWeights = new double[cities.length];
+        double total = 0;
+        for (int i = 0; i < cities.length; i++) {
+            cities[i] = cityName(i);
+            total += 1.0 / (i + 1);
+            cityWeights[i] = total;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int rows = -1;
+        int cities = 1000;
+        long seed = 42;
+        Path out = null;
+        Path script = null;
+        int commands = 100_000;
+        double writeRatio = 0.1;
+        boolean overwrite = false;
+        for (String option : args) {
+            if (option.startsWith("--rows=")) {
+                rows = Integer.parseInt(option.substring("--rows=".length()));
+            } else if (option.startsWith("--out=")) {
+                out = Paths.get(option.substring("--out=".length()));
+            } else if (option.startsWith("--cities=")) {
+                cities = Integer.parseInt(option.substring("--cities=".length()));
+            } else if (option.startsWith("--seed=")) {
+                seed = Long.parseLong(option.substring("--seed=".length()));
+            } else if (option.startsWith("--script=")) {
+                script = Paths.get(option.substring("--script=".length()));
+            } else if (option.startsWith("--commands=")) {
+                commands = Integer.parseInt(option.substring("--commands=".length()));
+            } else if (option.startsWith("--write-ratio=")) {
+                writeRatio = Double.parseDouble(option.substring("--write-ratio=".length()));
+            } else if (option.equals("--overwrite")) {
+                overwrite = true;
+            } else {
+                System.err.println("unknown option: " + option);
+                System.exit(2);
+            }
+        }
+        if (rows < 0 || out == null) {
+            System.err.println("usage: DatasetGenerator --rows=N --out=PATH [--script=FILE] [--commands=N]"
+                    + " [--write-ratio=P] [--cities=N] [--seed=N] [--overwrite]");
+            System.exit(2);
+        }
+        for (Path target : script == null ? new Path[]{out} : new Path[]{out, script}) {
+            if (!overwrite && Files.exists(target)) {
+                System.err.println(target + " exists; pass --overwrite to replace it");
+                System.exit(1);
+            }
+        }
+
+        DatasetGenerator generator = new DatasetGenerator(rows, cities, seed);
+        generator.writeDataset(out);
+        if (script != null) {
+            generator.writeScript(script, commands, writeRatio);
+        }
+        System.out.println("generated " + rows + " rows");
+    }
+
+    // Write the rows, IDs 1 to rows in order
+    public void writeDataset(Path path) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(
+                Files.newBufferedWriter(path, Charset.defaultCharset()), 1 << 20)) {
+            for (int id = 1; id <= rows; id++) {
+                writer.write(Main.formatTravel(nextTravel(id)));
+                writer.newLine();
+            }
+        }
+    }
+
+    // Write a script of mixed commands for the dataset, ending with exit. Writes touch existing IDs only;
+    // three-digit IDs are deleted and added back, as add accepts no other IDs, and the rest are edited
+    public void writeScript(Path path, int commands, double writeRatio) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, Charset.defaultCharset())) {
+            for (int i = 0; i < commands; i++) {
+                if (random.nextDouble() < writeRatio) {
+                    int id = 1 + random.nextInt(rows);
+                    Travel travel = nextTravel(id);
+                    if (id >= 100 && id <= 999 && i + 1 < commands) {
+                        writer.write("del " + id);
+                        writer.newLine();
+                        writer.write("add " + Main.formatTravel(travel).toLowerCase());
+                        i++;
+                    } else {
+                        writer.write("edit " + id + ";;;" + travel.getDays() + ";"
+                                + Main.DECIMAL_FORMAT.get().format(travel.getPrice()) + ";");
+                    }
+                } else {
+                    writer.write(nextRead());
+                }
+                writer.newLine();
+            }
+            writer.write("exit");
+            writer.newLine();
+        }
+    }
+
+    private String nextRead() {
+        String city = nextCity().toLowerCase();
+        String date = nextDate().format(Main.DATE_FORMATTER);
+        int price = (int) Datasets.VEHICLE_PRICES[Datasets.pick(random.nextDouble()).ordinal()];
+        switch (random.nextInt(10)) {
+            case 0:
+                return "find " + price + ";" + (price + 1);
+            case 1:
+                return "find " + price + ";" + (price * 2) + ";limit=20";
+            case 2:
+                return "count city = " + city;
+            case 3:
+                return "count city = " + city + " and vehicle = " + Datasets.pick(random.nextDouble()).name().toLowerCase();
+            case 4:
+                return "avg";
+            case 5:
+                return "avg city = " + city + " and days >= 5";
+            case 6:
+                return "print limit=20;offset=" + random.nextInt(rows);
+            case 7:
+                return "count active = " + date;
+            case 8:
+                return "busiest " + date + ";" + LocalDate.parse(date, Main.DATE_FORMATTER).plusDays(30).format(Main.DATE_FORMATTER);
+            default:
+                return "cities " + city.substring(0, Math.min(2, city.length()));
+        }
+    }
+
+    private Travel nextTravel(int id) {
+        VehicleType vehicle = Datasets.pick(random.nextDouble());
+        int days = 1 + Math.min(59, (int) (-Math.log(1 - random.nextDouble()) * 5));
+        double price = Datasets.VEHICLE_PRICES[vehicle.ordinal()] * Math.exp(0.5 * random.nextGaussian());
+        return new Travel(id, nextCity(), nextDate(), days, Math.round(price * 100) / 100.0, vehicle);
+    }
+
+    // Zipf: the k-th city is picked in proportion to 1/k
+    private String nextCity() {
+        double sample = random.nextDouble() * cityWeights[cityWeights.length - 1];
+        int i = Arrays.binarySearch(cityWeights, sample);
+        return cities[Math.min(i < 0 ? -i - 1 : i, cities.length - 1)];
+    }
+
+    // Later years weigh more; within a year, days are accepted in proportion to a seasonal curve
+    // peaking in mid-July with a smaller peak around New Year
+    private LocalDate nextDate() {
+        int year = (int) (YEARS * Math.sqrt(random.nextDouble()));
+        while (true) {
+            int day = random.nextInt(365);
+            double season = 1 + 0.8 * Math.cos(2 * Math.PI * (day - 196) / 365.0)
+                    + 0.5 * Math.exp(-Math.pow(Math.min(day, 365 - day) / 10.0, 2));
+            if (random.nextDouble() * 2.3 < season) {
+                return FIRST_DATE.plusYears(year).plusDays(day);
+            }
+        }
+    }
+
+    private static String cityName(int index) {
+        if (index < Datasets.CITIES.length) {
+            return Datasets.CITIES[index];
+        }
+        int synthetic = index - Datasets.CITIES.length;
+        int combinations = PREFIXES.length * SUFFIXES.length;
+        String name = PREFIXES[synthetic % PREFIXES.length] + SUFFIXES[synthetic / PREFIXES.length % SUFFIXES.length];
+        int qualifier = synthetic / combinations;
+        return qualifier == 0 ? name : QUALIFIERS[qualifier - 1] + " " + name;
+    }
+}
+
@@ -0,0 +1,84 @@
+package travel;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+// Generated datasets for the benchmarks, each in its own temporary directory with room for its journal and snapshot
+final class Datasets {
+    // Cities with decreasing popularity, and vehicles with their share of trips and base price
+    static final String[] CITIES = {
+            "Rome", "Paris", "London", "New York", "Barcelona", "Berlin", "Amsterdam", "Prague",
+            "Vienna", "Riga", "Helsinki", "Hamburg", "Daugavpils", "Lisbon", "Oslo", "Tallinn"
+    };
+    static final VehicleType[] VEHICLES = VehicleType.values();
+    static final double[] VEHICLE_SHARES = {0.35, 0.30, 0.25, 0.10};
+    static final double[] VEHICLE_PRICES = {450.0, 80.0, 120.0, 250.0};
+
+    // ID used by the add, edit and del benchmarks; it is three-digit so that add accepts it
+    static final int BENCHMARK_ID = 500;
+
+    private Datasets() {
+    }
+
+    // Write a dataset of the given size into a new temporary directory and make it the data file
+    static Path create(int rows) throws IOException {
+        Path dataset = Files.createTempDirectory("travel-benchmark").resolve(Main.FILE_NAME);
+        write(dataset, rows, 42);
+        Main.useDataFile(dataset);
+        return dataset;
+    }
+
+    // Delete the dataset's directory with its journal and snapshot, and go back to the default data file
+    static void delete(Path dataset) throws IOException {
+        Main.useDataFile(Paths.get(Main.FILE_NAME));
+        try (Stream<Path> files = Files.walk(dataset.getParent())) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    // Send command output nowhere, returning the stream to restore
+    static PrintStream silence() {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return console;
+    }
+
+    // Write a dataset with skewed city popularity, vehicle shares and vehicle-dependent prices
+    static void write(Path path, int rows, long seed) throws IOException {
+        Random random = new Random(seed);
+        LocalDate firstDate = LocalDate.of(2020, 1, 1);
+        try (BufferedWriter writer = Files.newBufferedWriter(path, Charset.defaultCharset())) {
+            for (int id = 1; id <= rows; id++) {
+                String city = CITIES[(int) (CITIES.length * Math.pow(random.nextDouble(), 2))];
+                VehicleType vehicle = pick(random.nextDouble());
+                LocalDate date = firstDate.plusDays(random.nextInt(5 * 365));
+                int days = 1 + random.nextInt(21);
+                double price = VEHICLE_PRICES[vehicle.ordinal()] * (0.5 + random.nextDouble() * 1.5);
+                writer.write(Main.formatTravel(new Travel(id, city, date, days, price, vehicle)));
+                writer.newLine();
+            }
+        }
+    }
+
+    static VehicleType pick(double sample) {
+        for (int i = 0; i < VEHICLES.length - 1; i++) {
+            sample -= VEHICLE_SHARES[i];
+            if (sample < 0) {
+                return VEHICLES[i];
+            }
+        }
+        return VEHICLES[VEHICLES.length - 1];
+    }
+}
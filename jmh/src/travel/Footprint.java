@@ -0,0 +1,45 @@
+package travel;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+// Retained heap per row of a loaded repository, with the object store and with the columnar store. Heap size
+// is not something JMH measures, so this runs on its own: java -cp benchmarks.jar travel.Footprint [rows,rows,...]
+public final class Footprint {
+    private Footprint() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        for (String size : (args.length > 0 ? args[0] : "1000,100000").split(",")) {
+            int rows = Integer.parseInt(size.trim());
+            Path dataset = Datasets.create(rows);
+            try {
+                footprint("footprint objects", rows, dataset, new ObjectTravelStore());
+                footprint("footprint columnar", rows, dataset, new ColumnarTravelStore());
+            } finally {
+                Datasets.delete(dataset);
+            }
+        }
+    }
+
+    private static void footprint(String label, int rows, Path dataset, TravelStore store) throws IOException {
+        long before = usedHeap();
+        TravelRepository travels = new TravelRepository(store);
+        new CsvLoader(travels, 1).load(dataset);
+        long withRows = usedHeap();
+        travels.getStatistics();
+        long withIndexes = usedHeap();
+        System.out.printf(Locale.US, "%-24s rows=%-10d %10.1f B/row rows %10.1f B/row with indexes%n",
+                label, rows, (double) (withRows - before) / rows, (double) (withIndexes - before) / rows);
+        java.lang.ref.Reference.reachabilityFence(travels);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
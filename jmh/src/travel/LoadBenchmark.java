@@ -0,0 +1,73 @@
+package travel;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Startup cost of the Scanner loader against the memory-mapped loader and the binary snapshot
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LoadBenchmark {
+    @Param({"1000", "100000", "10000000"})
+    public int rows;
+
+    private Path dataset;
+    private Path snapshot;
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataset = Datasets.create(rows);
+        console = Datasets.silence();
+        snapshot = dataset.resolveSibling(Main.SNAPSHOT_FILE_NAME);
+        TravelRepository travels = new TravelRepository();
+        new CsvLoader(travels, 1).load(dataset);
+        BinarySnapshot.write(snapshot, travels, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(console);
+        Datasets.delete(dataset);
+    }
+
+    @Benchmark
+    public TravelRepository loadScanner() throws IOException {
+        TravelRepository travels = new TravelRepository();
+        Main.loadWithScanner(dataset.toFile(), travels);
+        return travels;
+    }
+
+    @Benchmark
+    public TravelRepository loadMapped() throws IOException {
+        TravelRepository travels = new TravelRepository();
+        new CsvLoader(travels, 1).load(dataset);
+        return travels;
+    }
+
+    @Benchmark
+    public TravelRepository loadBinarySnapshot() throws IOException {
+        TravelRepository travels = new TravelRepository();
+        BinarySnapshot.load(snapshot, travels, 0);
+        return travels;
+    }
+}
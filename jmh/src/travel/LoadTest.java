@@ -0,0 +1,139 @@
+package travel;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// End-to-end load test: loads the data file and replays a command script through the command loop with the
+// launch options given next to it (--file, store, journal, group commit and so on), then reports load time,
+// throughput, latency percentiles overall and per command, peak RSS and garbage collections:
+//
+//     java -cp jmh/target/benchmarks.jar travel.LoadTest --script=big.txt --file=big.csv --journal
+public final class LoadTest {
+    private static final PrintStream console = System.out;
+
+    public static void main(String[] args) {
+        Path script = null;
+        for (String option : args) {
+            if (option.startsWith("--script=")) {
+                script = Paths.get(option.substring("--script=".length()));
+            }
+        }
+        if (script == null) {
+            System.err.println("usage: LoadTest --script=FILE [launch options of Main]");
+            System.exit(2);
+        }
+        Main.startServices(Main.parseOptions(args));
+        run(script);
+    }
+
+    static void run(Path script) {
+        GcMonitor gc = new GcMonitor();
+        long loadStarted = System.nanoTime();
+        TravelRepository travels = Main.readDataFromFile();
+        long loadNanos = System.nanoTime() - loadStarted;
+
+        LatencyHistogram all = new LatencyHistogram();
+        EnumMap<Command, LatencyHistogram> byCommand = new EnumMap<>(Command.class);
+        long commands = 0;
+        long started = System.nanoTime();
+        // Command output goes nowhere while the script runs
+        Session session = new Session(new PrintStream(OutputStream.nullOutputStream()));
+        try (BufferedReader reader = Files.newBufferedReader(script, Charset.defaultCharset())) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String input = line.trim().toLowerCase();
+                Command command = Main.commandOf(input);
+                if (command == Command.EXIT) {
+                    break;
+                }
+                long commandStarted = System.nanoTime();
+                Main.execute(input, travels, session);
+                Main.awaitCommit(session);
+                long elapsed = System.nanoTime() - commandStarted;
+                all.record(elapsed);
+                if (command != null) {
+                    byCommand.computeIfAbsent(command, key -> new LatencyHistogram()).record(elapsed);
+                }
+                commands++;
+            }
+        } catch (IOException e) {
+            console.println("Error reading file.");
+            return;
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        console.printf(Locale.US, "load rows=%d in %.1f ms%n", travels.size(), loadNanos / 1e6);
+        console.printf(Locale.US, "replay commands=%d in %.1f s, %.1f ops/s%n", commands, seconds, commands / seconds);
+        console.printf(Locale.US, "%-12s%10s%12s%12s%12s%n", "Command", "Count", "p50 us", "p99 us", "Max us");
+        printLatency("all", all);
+        byCommand.forEach((command, histogram) -> printLatency(command.name().toLowerCase(), histogram));
+        console.println("peak rss=" + peakRss());
+        gc.print();
+    }
+
+    private static void printLatency(String name, LatencyHistogram histogram) {
+        console.printf(Locale.US, "%-12s%10d%12.1f%12.1f%12.1f%n", name, histogram.count(),
+                histogram.percentile(0.50) / 1e3, histogram.percentile(0.99) / 1e3, histogram.max() / 1e3);
+    }
+
+    // High-water mark of the resident set from /proc, where there is one
+    private static String peakRss() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+                if (line.startsWith("VmHWM:")) {
+                    return line.substring("VmHWM:".length()).trim();
+                }
+            }
+        } catch (IOException e) {
+            // Not Linux
+        }
+        return "unknown";
+    }
+
+    // Collections per collector since construction, with the longest single collection taken from GC
+    // notifications; for concurrent collectors that is the cycle, not a pause
+    private static class GcMonitor {
+        private final Map<String, long[]> before = new LinkedHashMap<>();
+        private final Map<String, Long> longest = new ConcurrentHashMap<>();
+
+        public GcMonitor() {
+            for (java.lang.management.GarbageCollectorMXBean bean
+                    : java.lang.management.ManagementFactory.getGarbageCollectorMXBeans()) {
+                before.put(bean.getName(), new long[]{bean.getCollectionCount(), bean.getCollectionTime()});
+                if (bean instanceof javax.management.NotificationEmitter) {
+                    ((javax.management.NotificationEmitter) bean).addNotificationListener((notification, handback) -> {
+                        if (notification.getType().equals(
+                                com.sun.management.GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                            com.sun.management.GarbageCollectionNotificationInfo info =
+                                    com.sun.management.GarbageCollectionNotificationInfo.from(
+                                            (javax.management.openmbean.CompositeData) notification.getUserData());
+                            longest.merge(info.getGcName(), info.getGcInfo().getDuration(), Math::max);
+                        }
+                    }, null, null);
+                }
+            }
+        }
+
+        public void print() {
+            for (java.lang.management.GarbageCollectorMXBean bean
+                    : java.lang.management.ManagementFactory.getGarbageCollectorMXBeans()) {
+                long[] start = before.getOrDefault(bean.getName(), new long[2]);
+                console.printf(Locale.US, "gc %s count=%d time=%d ms longest=%d ms%n", bean.getName(),
+                        bean.getCollectionCount() - start[0], bean.getCollectionTime() - start[1],
+                        longest.getOrDefault(bean.getName(), 0L));
+            }
+        }
+    }
+}
+
@@ -0,0 +1,67 @@
+package travel;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Hand-written command parsing against the regex and split pipeline it replaced: both parse a set of typical
+// command lines and run the validation add and edit apply to their arguments
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+    private static final String[] LINES = {
+            "add 123;new york;01/01/2022;3;100;bus", "edit 123;;;5;;plane", "del 123", "find 100;200;limit=20",
+            "count city = rome and vehicle = plane", "avg vehicle = bus", "print limit=20;offset=500", "next",
+            "add 123;saint-petersburg;12/06/2023;14;1200.50;train", "sort price", "busiest 01/01/2022;31/12/2022"
+    };
+
+    @Benchmark
+    @OperationsPerInvocation(11)
+    public void parse(Blackhole blackhole) {
+        for (String input : LINES) {
+            int end = Main.commandEnd(input);
+            if (Main.lookupCommand(input, end) != null) {
+                validate(Main.commandArgs(input, end), Main::isThreeDigitNumeric, Main::isNumeric,
+                        Main::formatCityName, blackhole);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(11)
+    public void parseLegacy(Blackhole blackhole) {
+        for (String input : LINES) {
+            if (LegacyParser.command(input) != null) {
+                validate(LegacyParser.args(input), LegacyParser::isThreeDigitNumeric, LegacyParser::isNumeric,
+                        LegacyParser::cityName, blackhole);
+            }
+        }
+    }
+
+    private static void validate(String[] args, Predicate<String> threeDigits, Predicate<String> numeric,
+                                 UnaryOperator<String> city, Blackhole blackhole) {
+        if (args.length > 0 && threeDigits.test(args[0].trim())) {
+            for (int i = 1; i < args.length; i++) {
+                if (!numeric.test(args[i].trim())) {
+                    blackhole.consume(city.apply(args[i].trim()));
+                }
+            }
+        }
+    }
+}
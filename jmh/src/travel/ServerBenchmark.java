@@ -0,0 +1,87 @@
+package travel;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The TCP server under a mix of nine reads (find, count, avg, a page of print) to one edit; every JMH thread
+// is a client waiting for each response, so run it with -t 1, -t 4 and -t 16
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServerBenchmark {
+    private static final String[] COMMANDS = {
+            "edit " + Datasets.BENCHMARK_ID + ";;;;123.45;",
+            "find 100;101", "find 100;200;limit=20", "count vehicle = bus",
+            "count city = " + Datasets.CITIES[0].toLowerCase() + " and vehicle = plane", "avg", "avg vehicle = plane",
+            "avg city = " + Datasets.CITIES[1].toLowerCase() + " and days >= 5", "print limit=20", "print limit=20;offset=500"
+    };
+
+    @Param({"100000"})
+    public int rows;
+
+    private Path dataset;
+    private PrintStream console;
+    private TravelServer server;
+    int port;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataset = Datasets.create(rows);
+        console = Datasets.silence();
+        // Edits append to the journal instead of rewriting the dataset
+        Main.journalEnabled = true;
+        Main.journalRecords = 0;
+        server = new TravelServer(Main.readDataFromFile());
+        port = server.start(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        server.stop();
+        Main.journalEnabled = false;
+        Main.journalRecords = 0;
+        System.setOut(console);
+        Datasets.delete(dataset);
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        private LineClient client;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void connect(ServerBenchmark benchmark) throws IOException {
+            client = new LineClient(benchmark.port);
+            next = (int) Thread.currentThread().getId();
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            client.close();
+        }
+    }
+
+    @Benchmark
+    public int command(Client client) throws IOException {
+        return client.client.send(COMMANDS[Math.floorMod(client.next++, COMMANDS.length)]);
+    }
+}
@@ -0,0 +1,100 @@
+package travel;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Cost of the instrumentation: a bare probe pair and whole commands with probes off, with histograms
+// (--stats) and with JFR events (--jfr, no recording running)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatsBenchmark {
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"off", "stats", "jfr"})
+    public String mode;
+
+    private Path dataset;
+    private PrintStream console;
+    TravelRepository travels;
+    Session session;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataset = Datasets.create(rows);
+        console = Datasets.silence();
+        session = new Session(System.out);
+        travels = Main.readDataFromFile();
+        travels.prepareForReads();
+        // Adds append to the journal instead of rewriting the dataset
+        Main.journalEnabled = true;
+        Main.journalRecords = 0;
+        Main.statsEnabled = mode.equals("stats");
+        Main.jfrEnabled = mode.equals("jfr");
+        Stats.configure();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Main.statsEnabled = false;
+        Main.jfrEnabled = false;
+        Stats.configure();
+        Main.journalEnabled = false;
+        Main.journalRecords = 0;
+        System.setOut(console);
+        Datasets.delete(dataset);
+    }
+
+    // The benchmark row is missing before every add
+    @State(Scope.Thread)
+    public static class Removed {
+        @Setup(Level.Invocation)
+        public void remove(StatsBenchmark benchmark) {
+            benchmark.travels.remove(Datasets.BENCHMARK_ID);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public void probe() {
+        for (int i = 0; i < 1000; i++) {
+            Stats.phase(Stats.Phase.VALIDATE, Stats.start());
+        }
+    }
+
+    @Benchmark
+    public void executeCount() {
+        Main.execute("count", travels, session);
+    }
+
+    @Benchmark
+    public void executePage() {
+        Main.execute("print limit=20;offset=1000", travels, session);
+    }
+
+    @Benchmark
+    public void executeAdd(Removed removed) {
+        Main.execute("add " + Datasets.BENCHMARK_ID + ";new york;01/01/2022;3;100;bus", travels, session);
+    }
+}
@@ -0,0 +1,106 @@
+package travel;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Write throughput of the server with clients sending only edits: a full rewrite of the dataset per command,
+// an fsync per command, and group commit with the default settings and with a 1 ms window. Every JMH thread
+// is a client, so run it with -t 1, -t 4 and -t 16
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteBenchmark {
+    private static final String[] COMMANDS = {
+            "edit " + Datasets.BENCHMARK_ID + ";;;;123.45;", "edit " + Datasets.BENCHMARK_ID + ";;;;234.56;"
+    };
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"updateFile", "fsyncEach", "groupCommit", "group1ms"})
+    public String mode;
+
+    private Path dataset;
+    private PrintStream console;
+    private TravelServer server;
+    int port;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataset = Datasets.create(rows);
+        console = Datasets.silence();
+        Main.journalEnabled = !mode.equals("updateFile");
+        Main.journalRecords = 0;
+        // fsync each: one record per group; group commit: the defaults; and with a 1 ms window
+        switch (mode) {
+            case "fsyncEach":
+                Main.groupCommitter = new GroupCommitter(0, 1);
+                break;
+            case "groupCommit":
+                Main.groupCommitter = new GroupCommitter(Main.COMMIT_WINDOW_MICROS, Main.COMMIT_BATCH_SIZE);
+                break;
+            case "group1ms":
+                Main.groupCommitter = new GroupCommitter(1000, Main.COMMIT_BATCH_SIZE);
+                break;
+            default:
+                break;
+        }
+        server = new TravelServer(Main.readDataFromFile());
+        port = server.start(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        server.stop();
+        System.setOut(console);
+        if (Main.groupCommitter != null) {
+            Main.groupCommitter.drain();
+            Main.groupCommitter.stop();
+            System.out.println(mode + ": " + Main.groupCommitter.metrics());
+            Main.groupCommitter = null;
+        }
+        Main.journalEnabled = false;
+        Main.journalRecords = 0;
+        Datasets.delete(dataset);
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        private LineClient client;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void connect(WriteBenchmark benchmark) throws IOException {
+            client = new LineClient(benchmark.port);
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            client.close();
+        }
+    }
+
+    @Benchmark
+    public int edit(Client client) throws IOException {
+        return client.client.send(COMMANDS[client.next++ & 1]);
+    }
+}
@@ -0,0 +1,210 @@
+package travel;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.zip.CRC32;
+
+// Binary snapshot: a versioned header, a city string table and fixed-width records, checked by CRC32.
+// The stamp ties a snapshot to the db.csv it was built from (0 for exported files).
+class BinarySnapshot {
+    private static final int MAGIC = 0x54495342; // "TISB"
+    private static final int VERSION = 2;
+    // magic, version, row count, city count, source stamp, checksum of everything after the header,
+    // checksum of the source data file
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 8 + 8 + 8;
+    // id, city id, epoch day, days, price in cents, vehicle ordinal
+    private static final int RECORD_SIZE = 4 + 4 + 4 + 4 + 8 + 1;
+    private static final int RECORDS_PER_WINDOW = (1 << 30) / RECORD_SIZE;
+    private static final VehicleType[] VEHICLES = VehicleType.values();
+
+    // Stamp of a data file from its size and modification time
+    public static long stamp(Path path) throws IOException {
+        return Files.size(path) * 31 + Files.getLastModifiedTime(path).toMillis();
+    }
+
+    // Write an exported snapshot, which has no source data file
+    public static boolean write(Path path, TravelRepository travels, long stamp) throws IOException {
+        return write(path, travels, stamp, 0);
+    }
+
+    // Write travels through a temporary file and an atomic rename; returns false (and writes nothing)
+    // if a price cannot be stored in cents
+    public static boolean write(Path path, TravelRepository travels, long stamp, long sourceChecksum)
+            throws IOException {
+        Map<String, Integer> cityIds = new HashMap<>();
+        List<String> cities = new ArrayList<>();
+        for (Travel travel : travels) {
+            if (!Main.fitsInCents(travel.getPrice())) {
+                return false;
+            }
+            cityIds.computeIfAbsent(travel.getCity(), city -> {
+                cities.add(city);
+                return cities.size() - 1;
+            });
+        }
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            channel.position(HEADER_SIZE);
+            for (String city : cities) {
+                byte[] bytes = city.getBytes(StandardCharsets.UTF_8);
+                if (buffer.remaining() < 4 + bytes.length) {
+                    flush(channel, buffer, crc);
+                    if (buffer.capacity() < 4 + bytes.length) {
+                        buffer = ByteBuffer.allocate(4 + bytes.length);
+                    }
+                }
+                buffer.putInt(bytes.length).put(bytes);
+            }
+            for (Travel travel : travels) {
+                if (buffer.remaining() < RECORD_SIZE) {
+                    flush(channel, buffer, crc);
+                }
+                buffer.putInt(travel.getId())
+                        .putInt(cityIds.get(travel.getCity()))
+                        .putInt((int) travel.getDate().toEpochDay())
+                        .putInt(travel.getDays())
+                        .putLong(Main.toCents(travel.getPrice()))
+                        .put((byte) travel.getVehicle().ordinal());
+            }
+            flush(channel, buffer, crc);
+
+            buffer.clear();
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(travels.size()).putInt(cities.size())
+                    .putLong(stamp).putLong(crc.getValue()).putLong(sourceChecksum).flip();
+            channel.write(buffer, 0);
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return true;
+    }
+
+    // Load a snapshot, reporting duplicate IDs on the console
+    public static boolean load(Path path, TravelRepository travels, long expectedStamp) throws IOException {
+        return load(path, travels, expectedStamp, System.out);
+    }
+
+    // Memory-map and append the snapshot's travels, reporting duplicate IDs to out; returns false if it is
+    // missing, corrupt, of another version or (for a non-negative expected stamp) built from another data file.
+    // A record naming a city or vehicle that does not exist is corrupt even under a valid checksum; the
+    // travels appended before it was reached are left for the caller to discard
+    public static boolean load(Path path, TravelRepository travels, long expectedStamp, PrintStream out)
+            throws IOException {
+        if (!Files.exists(path)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                return false;
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            long rowCount = header.getLong(8);
+            int cityCount = header.getInt(16);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION
+                    || (expectedStamp >= 0 && header.getLong(20) != expectedStamp)
+                    || rowCount < 0 || cityCount < 0) {
+                return false;
+            }
+
+            // Checksum first, so that a torn or corrupted file is never half-loaded
+            CRC32 crc = new CRC32();
+            for (long position = HEADER_SIZE; position < fileSize; position += 1 << 30) {
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(1 << 30, fileSize - position)));
+            }
+            if (crc.getValue() != header.getLong(28)) {
+                return false;
+            }
+
+            // City table
+            String[] cities = new String[cityCount];
+            long position = HEADER_SIZE;
+            ByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(fileSize - position, Integer.MAX_VALUE));
+            for (int i = 0; i < cityCount; i++) {
+                int length = table.remaining() >= 4 ? table.getInt() : -1;
+                if (length < 0 || length > table.remaining()) {
+                    return false;
+                }
+                byte[] bytes = new byte[length];
+                table.get(bytes);
+                cities[i] = Main.cityDictionary.intern(new String(bytes, StandardCharsets.UTF_8));
+            }
+            position += table.position();
+            if (fileSize - position != rowCount * RECORD_SIZE) {
+                return false;
+            }
+
+            // Records, mapped window by window
+            LocalDate[] dates = new LocalDate[4096];
+            for (long row = 0; row < rowCount; row += RECORDS_PER_WINDOW) {
+                int count = (int) Math.min(RECORDS_PER_WINDOW, rowCount - row);
+                ByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY,
+                        position + row * RECORD_SIZE, (long) count * RECORD_SIZE);
+                for (int i = 0; i < count; i++) {
+                    int offset = i * RECORD_SIZE;
+                    int cityId = records.getInt(offset + 4);
+                    int vehicle = records.get(offset + 24);
+                    if (cityId < 0 || cityId >= cityCount || vehicle < 0 || vehicle >= VEHICLES.length) {
+                        return false;
+                    }
+                    int epochDay = records.getInt(offset + 8);
+                    LocalDate date = dates[epochDay & (dates.length - 1)];
+                    if (date == null || date.toEpochDay() != epochDay) {
+                        date = LocalDate.ofEpochDay(epochDay);
+                        dates[epochDay & (dates.length - 1)] = date;
+                    }
+                    // write never stores such cents, and the columnar store could not hold them
+                    double price = records.getLong(offset + 16) / 100.0;
+                    if (!Main.fitsInCents(price)) {
+                        return false;
+                    }
+                    Travel travel = new Travel(records.getInt(offset), cities[cityId], date,
+                            records.getInt(offset + 12), price, VEHICLES[vehicle]);
+                    if (!travels.append(travel)) {
+                        out.println("Duplicate id: " + Main.formatTravel(travel));
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    // First travel whose price cannot be stored in cents, which makes write refuse the repository, or null
+    public static Travel unstorable(TravelRepository travels) {
+        for (Travel travel : travels) {
+            if (!Main.fitsInCents(travel.getPrice())) {
+                return travel;
+            }
+        }
+        return null;
+    }
+
+    // Checksum of the data file a loaded snapshot was built from, as recorded in its header
+    public static long sourceChecksum(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).getLong(36);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer, CRC32 crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
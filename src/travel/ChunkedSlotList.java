@@ -0,0 +1,254 @@
+package travel;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+// Sequence of slots kept in chunks of at most CHUNK entries, with a Fenwick tree over the chunk sizes:
+// an insert or remove shifts one chunk and updates the tree, O(CHUNK + log N), and positions are found in
+// O(log N). Chunks split when full and merge with a neighbour when they fall below a quarter full, so
+// there are O(N / CHUNK) of them and reshaping the directory is rare
+class ChunkedSlotList {
+    static final int CHUNK = 512;
+
+    private int[][] chunks = new int[4][];
+    private int[] sizes = new int[4];
+    private int chunkCount;
+    // Fenwick tree over sizes, 1-based
+    private int[] tree = new int[5];
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    // Make the first count slots of the array the sequence, with chunks three quarters full
+    public void rebuild(int[] slots, int count) {
+        int fill = CHUNK * 3 / 4;
+        chunkCount = (count + fill - 1) / fill;
+        chunks = new int[Math.max(chunkCount, 4)][];
+        sizes = new int[chunks.length];
+        for (int c = 0; c < chunkCount; c++) {
+            int from = c * fill;
+            sizes[c] = Math.min(fill, count - from);
+            chunks[c] = new int[CHUNK];
+            System.arraycopy(slots, from, chunks[c], 0, sizes[c]);
+        }
+        size = count;
+        rebuildTree();
+    }
+
+    // First position whose slot does not satisfy the predicate, which must hold for a prefix of the sequence
+    public int partition(IntPredicate before) {
+        // The first chunk whose last slot is not before holds the answer
+        int low = 0;
+        int high = chunkCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (before.test(chunks[mid][sizes[mid] - 1])) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (low == chunkCount) {
+            return size;
+        }
+        int[] chunk = chunks[low];
+        int from = 0;
+        int to = sizes[low];
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (before.test(chunk[mid])) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return prefix(low) + from;
+    }
+
+    public int slotAt(int position) {
+        long located = locate(position);
+        return chunks[(int) (located >>> 32)][(int) located];
+    }
+
+    // Pass the slots at positions [from, to) to the consumer in order
+    public void forEach(int from, int to, IntConsumer consumer) {
+        if (from >= to) {
+            return;
+        }
+        long located = locate(from);
+        int c = (int) (located >>> 32);
+        int i = (int) located;
+        for (int remaining = to - from; remaining > 0; c++, i = 0) {
+            int end = Math.min(sizes[c], i + remaining);
+            int[] chunk = chunks[c];
+            for (int j = i; j < end; j++) {
+                consumer.accept(chunk[j]);
+            }
+            remaining -= end - i;
+        }
+    }
+
+    // Pass the slots from a position on to the visitor until it returns false; returns the position of
+    // the slot it returned false for, or size
+    public int visitFrom(int from, IntPredicate visitor) {
+        if (from >= size) {
+            return size;
+        }
+        long located = locate(from);
+        int position = from;
+        for (int c = (int) (located >>> 32), i = (int) located; c < chunkCount; c++, i = 0) {
+            int[] chunk = chunks[c];
+            for (int end = sizes[c]; i < end; i++, position++) {
+                if (!visitor.test(chunk[i])) {
+                    return position;
+                }
+            }
+        }
+        return size;
+    }
+
+    // The slots in order
+    public int[] toArray() {
+        int[] slots = new int[size];
+        for (int c = 0, position = 0; c < chunkCount; position += sizes[c], c++) {
+            System.arraycopy(chunks[c], 0, slots, position, sizes[c]);
+        }
+        return slots;
+    }
+
+    public void insert(int position, int slot) {
+        if (chunkCount == 0) {
+            insertChunk(0, new int[CHUNK], 0);
+        }
+        // A position at the end goes to the last chunk
+        long located = position == size ? (long) (chunkCount - 1) << 32 | sizes[chunkCount - 1] : locate(position);
+        int c = (int) (located >>> 32);
+        int i = (int) located;
+        if (sizes[c] == CHUNK) {
+            int half = CHUNK / 2;
+            int[] upper = new int[CHUNK];
+            System.arraycopy(chunks[c], half, upper, 0, CHUNK - half);
+            sizes[c] = half;
+            insertChunk(c + 1, upper, CHUNK - half);
+            if (i > half) {
+                c++;
+                i -= half;
+            }
+        }
+        int[] chunk = chunks[c];
+        System.arraycopy(chunk, i, chunk, i + 1, sizes[c] - i);
+        chunk[i] = slot;
+        sizes[c]++;
+        size++;
+        addToTree(c, 1);
+    }
+
+    public void remove(int position) {
+        long located = locate(position);
+        int c = (int) (located >>> 32);
+        int i = (int) located;
+        int[] chunk = chunks[c];
+        System.arraycopy(chunk, i + 1, chunk, i, sizes[c] - i - 1);
+        sizes[c]--;
+        size--;
+        addToTree(c, -1);
+        if (sizes[c] < CHUNK / 4 && chunkCount > 1) {
+            int left = c + 1 < chunkCount ? c : c - 1;
+            rebalance(left, left + 1);
+        } else if (sizes[c] == 0) {
+            removeChunk(c);
+        }
+    }
+
+    // Merge two neighbouring chunks when the result stays three quarters full at most, otherwise
+    // share their slots evenly between them
+    private void rebalance(int left, int right) {
+        int total = sizes[left] + sizes[right];
+        if (total <= CHUNK * 3 / 4) {
+            System.arraycopy(chunks[right], 0, chunks[left], sizes[left], sizes[right]);
+            sizes[left] = total;
+            removeChunk(right);
+            return;
+        }
+        int leftSize = total / 2;
+        if (sizes[left] < leftSize) {
+            int moved = leftSize - sizes[left];
+            System.arraycopy(chunks[right], 0, chunks[left], sizes[left], moved);
+            System.arraycopy(chunks[right], moved, chunks[right], 0, sizes[right] - moved);
+        } else {
+            int moved = sizes[left] - leftSize;
+            System.arraycopy(chunks[right], 0, chunks[right], moved, sizes[right]);
+            System.arraycopy(chunks[left], leftSize, chunks[right], 0, moved);
+        }
+        addToTree(left, leftSize - sizes[left]);
+        addToTree(right, sizes[left] - leftSize);
+        sizes[right] = total - leftSize;
+        sizes[left] = leftSize;
+    }
+
+    private void insertChunk(int c, int[] chunk, int chunkSize) {
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            sizes = Arrays.copyOf(sizes, chunkCount * 2);
+        }
+        System.arraycopy(chunks, c, chunks, c + 1, chunkCount - c);
+        System.arraycopy(sizes, c, sizes, c + 1, chunkCount - c);
+        chunks[c] = chunk;
+        sizes[c] = chunkSize;
+        chunkCount++;
+        rebuildTree();
+    }
+
+    private void removeChunk(int c) {
+        System.arraycopy(chunks, c + 1, chunks, c, chunkCount - c - 1);
+        System.arraycopy(sizes, c + 1, sizes, c, chunkCount - c - 1);
+        chunkCount--;
+        chunks[chunkCount] = null;
+        rebuildTree();
+    }
+
+    // Chunk and offset of a position below size, packed as chunk << 32 | offset
+    private long locate(int position) {
+        int c = 0;
+        for (int step = Integer.highestOneBit(Math.max(chunkCount, 1)); step > 0; step >>= 1) {
+            int next = c + step;
+            if (next <= chunkCount && tree[next] <= position) {
+                c = next;
+                position -= tree[next];
+            }
+        }
+        return (long) c << 32 | position;
+    }
+
+    // Number of slots in the chunks before c
+    private int prefix(int c) {
+        int sum = 0;
+        for (int i = c; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private void addToTree(int c, int delta) {
+        for (int i = c + 1; i <= chunkCount; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private void rebuildTree() {
+        if (tree.length <= chunkCount) {
+            tree = new int[chunks.length + 1];
+        }
+        Arrays.fill(tree, 0);
+        for (int i = 1; i <= chunkCount; i++) {
+            tree[i] += sizes[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= chunkCount) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
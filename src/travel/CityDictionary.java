@@ -0,0 +1,86 @@
+package travel;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Dictionary of city names: every distinct spelling a stored row uses gets a compact ID and one shared
+// String, and formatted user input is remembered so that repeated adds and edits skip the formatting.
+// Stores acquire the spelling of each row they hold and release it when the row goes; a spelling no row
+// uses any more is dropped and its ID reused, so deleted cities do not accumulate
+class CityDictionary {
+    // Formatted spellings remembered at most; beyond that input is formatted every time
+    private static final int MAX_FORMATTED = 4096;
+
+    private final Map<String, Integer> idsByName = new HashMap<>();
+    private volatile String[] names = new String[16];
+    // Rows using each ID; IDs of dropped spellings wait in freeIds
+    private int[] uses = new int[16];
+    private int[] freeIds = new int[16];
+    private int freeCount;
+    private int size;
+
+    private final Map<String, String> formatted = new ConcurrentHashMap<>();
+
+    // ID of the city for a row that now uses it, assigning one to a new spelling
+    public synchronized int acquire(String city) {
+        Integer known = idsByName.get(city);
+        int id;
+        if (known != null) {
+            id = known;
+        } else {
+            id = freeCount > 0 ? freeIds[--freeCount] : size++;
+            if (id == names.length) {
+                names = Arrays.copyOf(names, id * 2);
+                uses = Arrays.copyOf(uses, id * 2);
+            }
+            names[id] = city;
+            idsByName.put(city, id);
+        }
+        uses[id]++;
+        return id;
+    }
+
+    // A row no longer uses the city; the last one to go drops the spelling
+    public synchronized void release(int id) {
+        if (--uses[id] == 0) {
+            idsByName.remove(names[id]);
+            names[id] = null;
+            if (freeCount == freeIds.length) {
+                freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+            }
+            freeIds[freeCount++] = id;
+        }
+    }
+
+    public synchronized void release(String city) {
+        release(idsByName.get(city));
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    // Number of spellings stored rows use
+    public synchronized int size() {
+        return idsByName.size();
+    }
+
+    // The shared String for a spelling in use, or the city itself when no row uses it
+    public synchronized String intern(String city) {
+        Integer id = idsByName.get(city);
+        return id != null ? names[id] : city;
+    }
+
+    // formatCityName of the input, as the shared String if the spelling is in use; the remembered
+    // spellings are bounded on their own and may outlive their rows
+    public String format(String input) {
+        String city = formatted.get(input);
+        if (city == null) {
+            city = intern(Main.normalizeCityName(input));
+            if (formatted.size() < MAX_FORMATTED) {
+                formatted.put(input, city);
+            }
+        }
+        return city;
+    }
+}
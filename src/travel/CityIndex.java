@@ -0,0 +1,59 @@
+package travel;
+
+import java.util.*;
+
+// Bitmap index from city to its slots, one compressed bitmap per city ignoring case and surrounding
+// whitespace. Cities are sorted the same way, so the cities starting with a prefix are one range
+class CityIndex implements TravelIndex {
+    private final TravelStore store;
+    private final TreeMap<String, SlotBitmap> slotsByCity = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    public CityIndex(TravelStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public void added(int slot) {
+        slotsByCity.computeIfAbsent(store.getCity(slot).trim(), city -> new SlotBitmap()).add(slot);
+    }
+
+    @Override
+    public void removed(int slot) {
+        String city = store.getCity(slot).trim();
+        SlotBitmap slots = slotsByCity.get(city);
+        slots.remove(slot);
+        if (slots.cardinality() == 0) {
+            slotsByCity.remove(city);
+        }
+    }
+
+    @Override
+    public void rebuild(int[] slots, int count) {
+        slotsByCity.clear();
+        // Ascending slots keep every insert at the end of its chunk
+        int[] sorted = Arrays.copyOf(slots, count);
+        Arrays.sort(sorted);
+        for (int slot : sorted) {
+            added(slot);
+        }
+    }
+
+    // Rows of every stored spelling of the city, ignoring case
+    public SlotBitmap slots(String city) {
+        SlotBitmap slots = slotsByCity.get(city);
+        return slots != null ? slots : new SlotBitmap();
+    }
+
+    // Cities starting with the prefix, ignoring case, in alphabetical order with their row counts; each
+    // is named by the first spelling indexed
+    public Map<String, Integer> startingWith(String prefix) {
+        Map<String, Integer> cities = new LinkedHashMap<>();
+        for (Map.Entry<String, SlotBitmap> entry : slotsByCity.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().regionMatches(true, 0, prefix, 0, prefix.length())) {
+                break;
+            }
+            cities.put(entry.getKey(), entry.getValue().cardinality());
+        }
+        return cities;
+    }
+}
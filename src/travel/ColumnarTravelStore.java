@@ -0,0 +1,93 @@
+package travel;
+
+import java.time.LocalDate;
+import java.util.*;
+
+// Columnar store of parallel primitive arrays; cities are kept as city dictionary IDs and prices in whole cents
+class ColumnarTravelStore implements TravelStore {
+    private static final VehicleType[] VEHICLES = VehicleType.values();
+    private static final int NONE = -1;
+
+    private int[] ids = new int[16];
+    private int[] epochDays = new int[16];
+    private int[] days = new int[16];
+    private long[] priceCents = new long[16];
+    private byte[] vehicleOrdinals = new byte[16];
+    private int[] cityIds = filled(new int[16], 0);
+
+    @Override
+    public void set(int slot, Travel travel) {
+        if (slot >= ids.length) {
+            grow(Math.max(ids.length * 2, slot + 1));
+        }
+        ids[slot] = travel.getId();
+        epochDays[slot] = (int) travel.getDate().toEpochDay();
+        days[slot] = travel.getDays();
+        priceCents[slot] = Main.toCents(travel.getPrice());
+        vehicleOrdinals[slot] = (byte) travel.getVehicle().ordinal();
+        // Acquire before releasing, so that a row keeping its city never drops the name
+        int previous = cityIds[slot];
+        cityIds[slot] = Main.cityDictionary.acquire(travel.getCity());
+        if (previous != NONE) {
+            Main.cityDictionary.release(previous);
+        }
+    }
+
+    @Override
+    public void remove(int slot) {
+        // The other columns are simply overwritten when the slot is reused
+        Main.cityDictionary.release(cityIds[slot]);
+        cityIds[slot] = NONE;
+    }
+
+    @Override
+    public Travel get(int slot) {
+        return new Travel(ids[slot], getCity(slot), LocalDate.ofEpochDay(epochDays[slot]), days[slot],
+                getPrice(slot), getVehicle(slot));
+    }
+
+    @Override
+    public int getId(int slot) {
+        return ids[slot];
+    }
+
+    @Override
+    public String getCity(int slot) {
+        return Main.cityDictionary.name(cityIds[slot]);
+    }
+
+    @Override
+    public int getEpochDay(int slot) {
+        return epochDays[slot];
+    }
+
+    @Override
+    public int getDays(int slot) {
+        return days[slot];
+    }
+
+    @Override
+    public double getPrice(int slot) {
+        return priceCents[slot] / 100.0;
+    }
+
+    @Override
+    public VehicleType getVehicle(int slot) {
+        return VEHICLES[vehicleOrdinals[slot]];
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        days = Arrays.copyOf(days, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        vehicleOrdinals = Arrays.copyOf(vehicleOrdinals, capacity);
+        cityIds = filled(Arrays.copyOf(cityIds, capacity), cityIds.length);
+    }
+
+    // Mark the slots from the index on as holding no city
+    private static int[] filled(int[] cityIds, int from) {
+        Arrays.fill(cityIds, from, cityIds.length, NONE);
+        return cityIds;
+    }
+}
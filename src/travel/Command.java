@@ -0,0 +1,25 @@
+package travel;
+
+// Enum for supported commands
+enum Command {
+    PRINT,
+    ADD,
+    DEL,
+    EDIT,
+    SORT,
+    FIND,
+    AVG,
+    EXPORT,
+    IMPORT,
+    BEGIN,
+    COMMIT,
+    ABORT,
+    NEXT,
+    EXPLAIN,
+    COUNT,
+    COMPACT,
+    BUSIEST,
+    STATS,
+    CITIES,
+    EXIT
+}
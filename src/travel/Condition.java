@@ -0,0 +1,167 @@
+package travel;
+
+import java.time.LocalDate;
+
+// One conjunct of a find query: an inclusive range over a numeric field (dates as epoch days),
+// or equality with a city (ignoring case) or a vehicle type
+class Condition {
+    // Queryable fields and the index that can answer a condition on them, if any
+    enum Field {
+        ID("id key"),
+        CITY("city bitmap"),
+        DATE("date index"),
+        DAYS(null),
+        PRICE("price index"),
+        VEHICLE("vehicle bitmap"),
+        // Under way on some day of the range: date <= high and last day >= low
+        ACTIVE("interval index");
+
+        private final String index;
+
+        Field(String index) {
+            this.index = index;
+        }
+
+        public String getIndex() {
+            return index;
+        }
+
+        // City and vehicle lookups are compressed bitmaps, which intersect cheaply
+        public boolean isBitmap() {
+            return this == CITY || this == VEHICLE;
+        }
+    }
+
+    private final Field field;
+    private final double low;
+    private final double high;
+    private final String city;
+    private final VehicleType vehicle;
+    // The condition as written, for explain
+    private final String text;
+
+    private Condition(Field field, double low, double high, String city, VehicleType vehicle, String text) {
+        this.field = field;
+        this.low = low;
+        this.high = high;
+        this.city = city;
+        this.vehicle = vehicle;
+        this.text = text;
+    }
+
+    public static Condition range(Field field, double low, double high, String text) {
+        return new Condition(field, low, high, null, null, text);
+    }
+
+    // Build a condition from its parsed parts; upper is only set for between
+    public static Condition parse(Field field, String operator, String value, String upper) {
+        String text = field.name().toLowerCase() + " " + operator + " " + value + (upper != null ? " and " + upper : "");
+        if (field == Field.CITY || field == Field.VEHICLE) {
+            if (!operator.equals("=")) {
+                throw new IllegalArgumentException("wrong query");
+            }
+            if (field == Field.CITY) {
+                return new Condition(field, 0, 0, value, null, text);
+            }
+            VehicleType vehicle = VehicleType.of(value.toUpperCase());
+            if (vehicle == null) {
+                throw new IllegalArgumentException("wrong vehicle");
+            }
+            return new Condition(field, 0, 0, null, vehicle, text);
+        }
+        double bound = parseValue(field, value);
+        // Strict bounds step to the next value: the next whole number, or the next double for prices
+        double below = field == Field.PRICE ? Math.nextDown(bound) : bound - 1;
+        double above = field == Field.PRICE ? Math.nextUp(bound) : bound + 1;
+        switch (operator) {
+            case "=":
+                return range(field, bound, bound, text);
+            case "<":
+                return range(field, Double.NEGATIVE_INFINITY, below, text);
+            case "<=":
+                return range(field, Double.NEGATIVE_INFINITY, bound, text);
+            case ">":
+                return range(field, above, Double.POSITIVE_INFINITY, text);
+            case ">=":
+                return range(field, bound, Double.POSITIVE_INFINITY, text);
+            case "between":
+                return range(field, bound, parseValue(field, upper), text);
+            default:
+                throw new IllegalArgumentException("wrong query");
+        }
+    }
+
+    private static double parseValue(Field field, String value) {
+        switch (field) {
+            case ID:
+            case DAYS:
+                long number = Main.parseInteger(value);
+                if (number == Main.NOT_AN_INT) {
+                    throw new IllegalArgumentException(field == Field.ID ? "wrong id" : "wrong day count");
+                }
+                return number;
+            case DATE:
+            case ACTIVE:
+                LocalDate date = Main.parseDate(value);
+                if (date == null) {
+                    throw new IllegalArgumentException("wrong date");
+                }
+                return date.toEpochDay();
+            default:
+                // Replace comma with dot for correct parsing of floating-point numbers
+                String price = value.replace(',', '.');
+                if (!Main.isDouble(price)) {
+                    throw new IllegalArgumentException("wrong price");
+                }
+                return Double.parseDouble(price);
+        }
+    }
+
+    public boolean matches(TravelStore store, int slot) {
+        switch (field) {
+            case ID:
+                return inRange(store.getId(slot));
+            case CITY:
+                return store.getCity(slot).trim().equalsIgnoreCase(city);
+            case DATE:
+                return inRange(store.getEpochDay(slot));
+            case DAYS:
+                return inRange(store.getDays(slot));
+            case PRICE:
+                return inRange(store.getPrice(slot));
+            case ACTIVE:
+                return store.getEpochDay(slot) <= high && IntervalIndex.lastDay(store, slot) >= low;
+            default:
+                return store.getVehicle(slot) == vehicle;
+        }
+    }
+
+    private boolean inRange(double value) {
+        return value >= low && value <= high;
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public double getLow() {
+        return low;
+    }
+
+    public double getHigh() {
+        return high;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public VehicleType getVehicle() {
+        return vehicle;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,321 @@
+package travel;
+
+import java.nio.MappedByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+
+// A newline-aligned byte range of a mapped CSV file, parsed into travels and malformed lines
+class CsvChunk {
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+    private static final byte[][] VEHICLE_NAMES = new byte[VehicleType.values().length][];
+    static {
+        for (VehicleType vehicle : VehicleType.values()) {
+            VEHICLE_NAMES[vehicle.ordinal()] = vehicle.name().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final MappedByteBuffer buffer;
+    private final int chunkStart;
+    private final int chunkEnd;
+    private final Charset charset = Charset.defaultCharset();
+
+    // Parsed travels with the start of their line, and malformed lines with the row they precede
+    Travel[] rows = new Travel[1024];
+    private int[] lineStarts = new int[1024];
+    int rowCount;
+    final List<String> invalidLines = new ArrayList<>();
+    int[] invalidRows = new int[16];
+    int invalidCount;
+
+    // City names and recently parsed dates seen by this chunk
+    private byte[][] cityBytes = new byte[64][];
+    private String[] cityNames = new String[64];
+    private int cityCount;
+    private final LocalDate[] dates = new LocalDate[4096];
+
+    // Start of each field of the current line, plus one entry past the last field
+    private final int[] fieldStarts = new int[8];
+    // Whether the last parsePrice found a price
+    private boolean priceValid;
+
+    public CsvChunk(MappedByteBuffer buffer, int chunkStart, int chunkEnd) {
+        this.buffer = buffer;
+        this.chunkStart = chunkStart;
+        this.chunkEnd = chunkEnd;
+    }
+
+    // Parse every line of the range; the last line may lack its newline
+    public CsvChunk parse() {
+        int lineStart = chunkStart;
+        while (lineStart < chunkEnd) {
+            int lineEnd = lineStart;
+            while (lineEnd < chunkEnd && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int next = lineEnd + 1;
+            if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            parseLine(lineStart, lineEnd);
+            lineStart = next;
+        }
+        return this;
+    }
+
+    // Text of the line a parsed travel came from
+    public String line(int row) {
+        int start = lineStarts[row];
+        int end = start;
+        while (end < chunkEnd && buffer.get(end) != '\n') {
+            end++;
+        }
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        return decode(start, end);
+    }
+
+    private void parseLine(int start, int end) {
+        Travel travel = splitFields(start, end) == 6 ? parseTravel() : null;
+        if (travel == null) {
+            if (invalidCount == invalidRows.length) {
+                invalidRows = Arrays.copyOf(invalidRows, invalidCount * 2);
+            }
+            invalidRows[invalidCount++] = rowCount;
+            invalidLines.add(decode(start, end));
+        } else {
+            if (rowCount == rows.length) {
+                rows = Arrays.copyOf(rows, rowCount * 2);
+                lineStarts = Arrays.copyOf(lineStarts, rowCount * 2);
+            }
+            rows[rowCount] = travel;
+            lineStarts[rowCount++] = start;
+        }
+    }
+
+    // Find field boundaries; like String.split, trailing empty fields are not counted
+    private int splitFields(int start, int end) {
+        int count = 0;
+        int fieldStart = start;
+        int lastNonEmpty = 0;
+        for (int i = start; i <= end; i++) {
+            if (i == end || buffer.get(i) == ';') {
+                if (count < 7) {
+                    fieldStarts[count] = fieldStart;
+                }
+                count++;
+                if (i > fieldStart) {
+                    lastNonEmpty = count;
+                }
+                fieldStart = i + 1;
+            }
+        }
+        if (count < 7) {
+            fieldStarts[count] = end + 1;
+        }
+        return start == end ? 1 : lastNonEmpty;
+    }
+
+    // The travel on the current line, or null if a field is malformed
+    private Travel parseTravel() {
+        long id = parseInt(0);
+        LocalDate date = parseDate();
+        long days = parseInt(3);
+        double price = parsePrice();
+        VehicleType vehicle = parseVehicle();
+        if (id == Main.NOT_AN_INT || date == null || days == Main.NOT_AN_INT || !priceValid || vehicle == null) {
+            return null;
+        }
+        return new Travel((int) id, parseCity(), date, (int) days, price, vehicle);
+    }
+
+    private int fieldStart(int field) {
+        return fieldStarts[field];
+    }
+
+    private int fieldEnd(int field) {
+        return fieldStarts[field + 1] - 1;
+    }
+
+    // Plain decimal integers of up to nine digits are parsed directly, anything else by Main.parseInteger,
+    // which returns NOT_AN_INT for a malformed field
+    private long parseInt(int field) {
+        int from = fieldStart(field);
+        int to = fieldEnd(field);
+        if (to > from && to - from <= 9) {
+            int value = 0;
+            int i = from;
+            for (; i < to; i++) {
+                int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                value = value * 10 + digit;
+            }
+            if (i == to) {
+                return value;
+            }
+        }
+        return Main.parseInteger(decode(from, to));
+    }
+
+    // dd/MM/yyyy with a valid day of month is parsed directly, anything else by Main.parseDate, which
+    // returns null for a malformed field
+    private LocalDate parseDate() {
+        int from = fieldStart(2);
+        int to = fieldEnd(2);
+        if (to - from == 10 && buffer.get(from + 2) == '/' && buffer.get(from + 5) == '/') {
+            int day = digits(from, 2);
+            int month = digits(from + 3, 2);
+            int year = digits(from + 6, 4);
+            if (day > 0 && month >= 1 && month <= 12 && year > 0
+                    && day <= java.time.Month.of(month).length(java.time.Year.isLeap(year))) {
+                int key = ((year * 12 + month) * 31 + day) & (dates.length - 1);
+                LocalDate date = dates[key];
+                if (date == null || date.getDayOfMonth() != day || date.getMonthValue() != month
+                        || date.getYear() != year) {
+                    date = LocalDate.of(year, month, day);
+                    dates[key] = date;
+                }
+                return date;
+            }
+        }
+        return Main.parseDate(decode(from, to));
+    }
+
+    // Value of a run of ASCII digits, or -1 if any byte is not a digit
+    private int digits(int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    // Decimals with up to 15 significant digits are exact as mantissa / 10^scale;
+    // everything else goes through Double.parseDouble if Main.isDouble accepts it, and priceValid is
+    // cleared if it does not or the store cannot hold the price
+    private double parsePrice() {
+        priceValid = true;
+        int from = fieldStart(4);
+        int to = fieldEnd(4);
+        boolean negative = from < to && buffer.get(from) == '-';
+        long mantissa = 0;
+        int digitCount = 0;
+        int scale = -1;
+        boolean plain = to > from + (negative ? 1 : 0);
+        for (int i = negative ? from + 1 : from; i < to && plain; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digitCount++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if ((b == '.' || b == ',') && scale < 0 && digitCount > 0 && i + 1 < to) {
+                scale = 0;
+            } else {
+                plain = false;
+            }
+        }
+        if (plain && digitCount <= 15) {
+            double value = mantissa / POWERS_OF_TEN[Math.max(scale, 0)];
+            return negative ? -value : value;
+        }
+        String text = decode(from, to).replace(',', '.');
+        if (!Main.isDouble(text)) {
+            priceValid = false;
+            return 0;
+        }
+        double price = Double.parseDouble(text);
+        priceValid = Main.storablePrice(price);
+        return price;
+    }
+
+    private VehicleType parseVehicle() {
+        int from = fieldStart(5);
+        int to = fieldEnd(5);
+        for (VehicleType vehicle : VehicleType.values()) {
+            if (matches(VEHICLE_NAMES[vehicle.ordinal()], from, to)) {
+                return vehicle;
+            }
+        }
+        return VehicleType.of(decode(from, to));
+    }
+
+    // City names repeat heavily, so each distinct name is decoded once per chunk; the stores then share one
+    // String per name across chunks
+    private String parseCity() {
+        int from = fieldStart(1);
+        int to = fieldEnd(1);
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = hash * 31 + buffer.get(i);
+        }
+        int mask = cityBytes.length - 1;
+        int i = (hash ^ (hash >>> 16)) & mask;
+        while (cityBytes[i] != null) {
+            if (matches(cityBytes[i], from, to)) {
+                return cityNames[i];
+            }
+            i = (i + 1) & mask;
+        }
+
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        String city = Main.cityDictionary.intern(new String(bytes, charset));
+        cityBytes[i] = bytes;
+        cityNames[i] = city;
+        if (++cityCount * 2 > cityBytes.length) {
+            growCities();
+        }
+        return city;
+    }
+    private void growCities() {
+        byte[][] oldBytes = cityBytes;
+        String[] oldNames = cityNames;
+        cityBytes = new byte[oldBytes.length * 2][];
+        cityNames = new String[oldNames.length * 2];
+        int mask = cityBytes.length - 1;
+        for (int j = 0; j < oldBytes.length; j++) {
+            if (oldBytes[j] != null) {
+                int hash = 0;
+                for (byte b : oldBytes[j]) {
+                    hash = hash * 31 + b;
+                }
+                int i = (hash ^ (hash >>> 16)) & mask;
+                while (cityBytes[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                cityBytes[i] = oldBytes[j];
+                cityNames[i] = oldNames[j];
+            }
+        }
+    }
+
+    private boolean matches(byte[] expected, int from, int to) {
+        if (expected.length != to - from) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(from + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decode(int from, int to) {
+        byte[] bytes = new byte[Math.max(to - from, 0)];
+        buffer.get(from, bytes);
+        return new String(bytes, charset);
+    }
+}
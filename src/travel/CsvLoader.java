@@ -0,0 +1,103 @@
+package travel;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Zero-regex CSV loader: memory-maps the file and parses fields straight from its bytes,
+// either serially or in newline-aligned chunks on a fork-join pool
+class CsvLoader {
+    // Files larger than a window are mapped window by window, each cut back to its last newline
+    private static final int WINDOW_SIZE = 1 << 30;
+    // Chunks per thread, so that uneven chunks still balance across the pool
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final TravelRepository travels;
+    private final int threads;
+
+    public CsvLoader(TravelRepository travels, int threads) {
+        this.travels = travels;
+        this.threads = threads;
+    }
+
+    public void load(Path path) throws IOException {
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long position = 0;
+            while (position < fileSize) {
+                int length = (int) Math.min(WINDOW_SIZE, fileSize - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int end = length;
+                if (position + length < fileSize) {
+                    end = lineBoundary(buffer, 0, end);
+                    if (end == 0) {
+                        throw new IOException("Line longer than " + WINDOW_SIZE + " bytes");
+                    }
+                }
+                if (pool == null) {
+                    merge(new CsvChunk(buffer, 0, end).parse());
+                } else {
+                    loadParallel(pool, buffer, end);
+                }
+                position += end;
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    // Parse newline-aligned chunks in parallel and merge them in file order
+    private void loadParallel(ForkJoinPool pool, MappedByteBuffer buffer, int end) {
+        int chunkCount = threads * CHUNKS_PER_THREAD;
+        List<ForkJoinTask<CsvChunk>> tasks = new ArrayList<>();
+        int chunkStart = 0;
+        for (int i = 1; i <= chunkCount && chunkStart < end; i++) {
+            int chunkEnd = i == chunkCount ? end : nextLineStart(buffer, (int) ((long) end * i / chunkCount), end);
+            if (chunkEnd > chunkStart) {
+                CsvChunk chunk = new CsvChunk(buffer, chunkStart, chunkEnd);
+                tasks.add(pool.submit(chunk::parse));
+                chunkStart = chunkEnd;
+            }
+        }
+        // Duplicate IDs and malformed lines are reported here, in file order, whatever the thread count
+        for (ForkJoinTask<CsvChunk> task : tasks) {
+            merge(task.join());
+        }
+    }
+
+    private void merge(CsvChunk chunk) {
+        int invalid = 0;
+        for (int row = 0; row <= chunk.rowCount; row++) {
+            while (invalid < chunk.invalidCount && chunk.invalidRows[invalid] == row) {
+                System.out.println("Invalid data format: " + chunk.invalidLines.get(invalid));
+                invalid++;
+            }
+            if (row < chunk.rowCount && !travels.append(chunk.rows[row])) {
+                System.out.println("Duplicate id: " + chunk.line(row));
+            }
+        }
+    }
+
+    // End of the last complete line in [from, to), or from if there is none
+    private static int lineBoundary(MappedByteBuffer buffer, int from, int to) {
+        while (to > from && buffer.get(to - 1) != '\n') {
+            to--;
+        }
+        return to;
+    }
+
+    // Start of the line after the one containing position, or end
+    private static int nextLineStart(MappedByteBuffer buffer, int position, int end) {
+        while (position < end && buffer.get(position) != '\n') {
+            position++;
+        }
+        return Math.min(position + 1, end);
+    }
+}
@@ -0,0 +1,131 @@
+package travel;
+
+import java.util.*;
+
+// Number of travels under way per day, as a sparse segment tree over all epoch days: a trip adds one to
+// every node covering part of its days, and each node keeps the maximum over its range.
+// Nodes are created on first use, so only the parts of the calendar that have trips take memory
+class DayCounts {
+    // Epoch days in [DOMAIN_LOW, DOMAIN_HIGH) cover every int date plus any int duration
+    private static final long DOMAIN_LOW = -(1L << 32);
+    private static final long DOMAIN_HIGH = 1L << 32;
+    // Offsets of days from DOMAIN_LOW fit in 33 bits; a packed result holds a count above the inverted
+    // offset, so that the larger packed value is the higher count on the earlier day
+    private static final long OFFSET_MASK = (1L << 33) - 1;
+
+    // Node 0 is the root; a child of 0 means no child, whose range has no trips
+    private int[] lefts = new int[64];
+    private int[] rights = new int[64];
+    // Trips covering the node's whole range, and the maximum count of any day in its range
+    private int[] adds = new int[64];
+    private int[] maxes = new int[64];
+    private int nodeCount = 1;
+
+    public void clear() {
+        lefts = new int[64];
+        rights = new int[64];
+        adds = new int[64];
+        maxes = new int[64];
+        nodeCount = 1;
+    }
+
+    // Add delta to every day in [first, last]
+    public void add(long first, long last, int delta) {
+        if (first <= last) {
+            add(0, DOMAIN_LOW, DOMAIN_HIGH, first, last + 1, delta);
+        }
+    }
+
+    // Earliest day with the highest count in [first, last] and that count, or null when it is zero
+    public long[] max(long first, long last) {
+        first = Math.max(first, DOMAIN_LOW);
+        last = Math.min(last, DOMAIN_HIGH - 1);
+        if (first > last || maxes[0] == 0) {
+            return null;
+        }
+        long best = max(0, DOMAIN_LOW, DOMAIN_HIGH, first, last + 1);
+        int count = (int) (best >>> 33);
+        return count == 0 ? null : new long[]{DOMAIN_LOW + OFFSET_MASK - (best & OFFSET_MASK), count};
+    }
+
+    private static long pack(int count, long day) {
+        return (long) count << 33 | (OFFSET_MASK - (day - DOMAIN_LOW));
+    }
+
+    // Range add over [from, to) below the node covering [low, high)
+    private void add(int node, long low, long high, long from, long to, int delta) {
+        if (from <= low && high <= to) {
+            adds[node] += delta;
+            maxes[node] += delta;
+            return;
+        }
+        long mid = low + (high - low) / 2;
+        if (from < mid) {
+            if (lefts[node] == 0) {
+                int child = newNode();
+                lefts[node] = child;
+            }
+            add(lefts[node], low, mid, from, to, delta);
+        }
+        if (to > mid) {
+            if (rights[node] == 0) {
+                int child = newNode();
+                rights[node] = child;
+            }
+            add(rights[node], mid, high, from, to, delta);
+        }
+        maxes[node] = adds[node] + Math.max(maxOf(lefts[node]), maxOf(rights[node]));
+    }
+
+    // Packed best day of [from, to) below the node covering [low, high)
+    private long max(int node, long low, long high, long from, long to) {
+        if (from <= low && high <= to) {
+            return pack(maxes[node], earliestMax(node, low, high));
+        }
+        long mid = low + (high - low) / 2;
+        long best = -1;
+        if (from < mid) {
+            best = lefts[node] == 0 ? pack(0, Math.max(low, from)) : max(lefts[node], low, mid, from, to);
+        }
+        if (to > mid) {
+            best = Math.max(best,
+                    rights[node] == 0 ? pack(0, Math.max(mid, from)) : max(rights[node], mid, high, from, to));
+        }
+        return best + ((long) adds[node] << 33);
+    }
+
+    // Earliest day in the node's range [low, high) that reaches the node's maximum
+    private long earliestMax(int node, long low, long high) {
+        while (true) {
+            int below = maxes[node] - adds[node];
+            if (below == 0) {
+                return low;
+            }
+            long mid = low + (high - low) / 2;
+            int left = lefts[node];
+            if (maxOf(left) == below) {
+                node = left;
+                high = mid;
+            } else {
+                node = rights[node];
+                low = mid;
+            }
+        }
+    }
+
+    // Missing children have no trips
+    private int maxOf(int node) {
+        return node == 0 ? 0 : maxes[node];
+    }
+
+    private int newNode() {
+        if (nodeCount == lefts.length) {
+            int capacity = nodeCount * 2;
+            lefts = Arrays.copyOf(lefts, capacity);
+            rights = Arrays.copyOf(rights, capacity);
+            adds = Arrays.copyOf(adds, capacity);
+            maxes = Arrays.copyOf(maxes, capacity);
+        }
+        return nodeCount++;
+    }
+}
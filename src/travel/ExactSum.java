@@ -0,0 +1,43 @@
+package travel;
+
+import java.math.BigDecimal;
+
+// Exact sum of finite doubles without a BigDecimal per value: values are bucketed by binary exponent, where
+// their 53-bit significands add up exactly in a long, and a bucket is folded into the total before it can overflow
+class ExactSum {
+    private static final int FOLD_AFTER = 1 << 10;
+
+    private final long[] significands = new long[2048];
+    private final int[] additions = new int[2048];
+    private BigDecimal folded = BigDecimal.ZERO;
+
+    public void add(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        int exponent = (int) (bits >>> 52) & 0x7FF;
+        long significand = bits & 0xFFFFFFFFFFFFFL;
+        if (exponent != 0) {
+            significand |= 1L << 52;
+        }
+        significands[exponent] += bits < 0 ? -significand : significand;
+        if (++additions[exponent] == FOLD_AFTER) {
+            fold(exponent);
+        }
+    }
+
+    public BigDecimal get() {
+        for (int exponent = 0; exponent < significands.length; exponent++) {
+            if (additions[exponent] > 0) {
+                fold(exponent);
+            }
+        }
+        return folded;
+    }
+
+    // A significand s in bucket e stands for s * 2^(e - 1075); subnormals share the scale of e = 1
+    private void fold(int exponent) {
+        int scale = Math.max(exponent, 1) - 1075;
+        folded = folded.add(new BigDecimal(significands[exponent]).multiply(new BigDecimal(Math.scalb(1.0, scale))));
+        significands[exponent] = 0;
+        additions[exponent] = 0;
+    }
+}
@@ -0,0 +1,376 @@
+package travel;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+// File order of the live slots as a treap: each slot is a node, the file order is the in-order walk, and
+// every node keeps the size of its subtree, for positions in O(log N) both ways, and the largest ID in its
+// subtree, for finding where an ID goes even when the file is not sorted by ID. Priorities are a hash of
+// the slot, so they take no memory. Slots appended while loading are linked in one pass on first use.
+// Walks over many slots read the order as an array, made on demand with the position of every slot and
+// kept until the next change, which also answers positions in O(1) while it lasts
+class FileOrder {
+    private static final int NONE = -1;
+
+    private final IntUnaryOperator ids;
+    private int[] lefts = new int[16];
+    private int[] rights = new int[16];
+    private int[] parents = new int[16];
+    private int[] counts = new int[16];
+    private int[] maxIds = new int[16];
+    private int root = NONE;
+
+    // Appended slots not linked into the tree yet, in file order
+    private int[] pending = new int[16];
+    private int pendingCount;
+
+    // The order as arrays, or null after a change; readers sharing the repository may each make it
+    private volatile Snapshot snapshot;
+
+    // Results of split: the first part and the rest
+    private int splitLeft;
+    private int splitRight;
+
+    public FileOrder(IntUnaryOperator ids) {
+        this.ids = ids;
+    }
+
+    public int size() {
+        return count(root) + pendingCount;
+    }
+
+    public void clear() {
+        root = NONE;
+        pendingCount = 0;
+        snapshot = null;
+    }
+
+    // Add a slot at the end; O(1), linked into the tree by the next other call
+    public void append(int slot) {
+        if (pendingCount == pending.length) {
+            pending = Arrays.copyOf(pending, pendingCount * 2);
+        }
+        pending[pendingCount++] = slot;
+        snapshot = null;
+    }
+
+    // Insert a slot so that it gets the position
+    public void insert(int position, int slot) {
+        link();
+        reserve(slot);
+        lefts[slot] = NONE;
+        rights[slot] = NONE;
+        update(slot);
+        split(root, position);
+        root = merge(merge(splitLeft, slot), splitRight);
+        parents[root] = NONE;
+        snapshot = null;
+    }
+
+    public void remove(int slot) {
+        link();
+        snapshot = null;
+        int child = merge(lefts[slot], rights[slot]);
+        int parent = parents[slot];
+        if (child != NONE) {
+            parents[child] = parent;
+        }
+        if (parent == NONE) {
+            root = child;
+            return;
+        }
+        if (lefts[parent] == slot) {
+            lefts[parent] = child;
+        } else {
+            rights[parent] = child;
+        }
+        for (int node = parent; node != NONE; node = parents[node]) {
+            update(node);
+        }
+    }
+
+    // Make the first count slots of the array the file order
+    public void rebuild(int[] slots, int count) {
+        clear();
+        for (int i = 0; i < count; i++) {
+            append(slots[i]);
+        }
+        link();
+    }
+
+    // Position of a live slot
+    public int positionOf(int slot) {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current.positions[slot];
+        }
+        link();
+        int position = count(lefts[slot]);
+        for (int node = slot; parents[node] != NONE; node = parents[node]) {
+            int parent = parents[node];
+            if (rights[parent] == node) {
+                position += count(lefts[parent]) + 1;
+            }
+        }
+        return position;
+    }
+
+    // Slot at a position below size
+    public int slotAt(int position) {
+        link();
+        int node = root;
+        while (true) {
+            int leftCount = count(lefts[node]);
+            if (position < leftCount) {
+                node = lefts[node];
+            } else if (position == leftCount) {
+                return node;
+            } else {
+                position -= leftCount + 1;
+                node = rights[node];
+            }
+        }
+    }
+
+    // First slot in file order, or -1 when empty
+    public int first() {
+        link();
+        return root == NONE ? NONE : leftmost(root);
+    }
+
+    // Slot after the given one in file order, or -1 after the last; a walk over all slots takes O(N)
+    public int next(int slot) {
+        if (rights[slot] != NONE) {
+            return leftmost(rights[slot]);
+        }
+        int node = slot;
+        while (parents[node] != NONE && rights[parents[node]] == node) {
+            node = parents[node];
+        }
+        return parents[node];
+    }
+
+    // Pass the slots from a position on to the visitor until it returns false; returns the position of
+    // the slot it returned false for, or size. Reads the array of the order if there is one, and otherwise
+    // walks from slot to successor, so that a short walk after a change does not make the array
+    public int visitFrom(int from, IntPredicate visitor) {
+        int size = size();
+        Snapshot current = snapshot;
+        if (current != null) {
+            for (int position = from; position < size; position++) {
+                if (!visitor.test(current.slots[position])) {
+                    return position;
+                }
+            }
+            return size;
+        }
+        int slot = from < size ? slotAt(from) : NONE;
+        for (int position = from; slot != NONE; position++, slot = next(slot)) {
+            if (!visitor.test(slot)) {
+                return position;
+            }
+        }
+        return size;
+    }
+
+    // Position of the first slot with an ID greater than the given one, or size if there is none
+    public int positionAbove(int id) {
+        link();
+        if (root == NONE || maxIds[root] <= id) {
+            return size();
+        }
+        // Only subtrees holding a greater ID are entered, so the walk ends at one
+        int position = 0;
+        int node = root;
+        while (true) {
+            int left = lefts[node];
+            if (left != NONE && maxIds[left] > id) {
+                node = left;
+            } else if (ids.applyAsInt(node) > id) {
+                return position + count(left);
+            } else {
+                position += count(left) + 1;
+                node = rights[node];
+            }
+        }
+    }
+
+    // Slots in file order; the array is shared and must not be modified
+    public int[] slots() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            link();
+            int[] slots = new int[size()];
+            int[] positions = new int[lefts.length];
+            int i = 0;
+            for (int slot = first(); slot != NONE; slot = next(slot)) {
+                positions[slot] = i;
+                slots[i++] = slot;
+            }
+            current = new Snapshot(slots, positions);
+            snapshot = current;
+        }
+        return current.slots;
+    }
+
+    // Link the appended slots into the tree: a Cartesian tree is built over them with a stack of its
+    // right spine, each node complete once it leaves the stack, and then merged after the existing tree
+    public void link() {
+        if (pendingCount == 0) {
+            return;
+        }
+        int[] spine = new int[Math.min(pendingCount, 64)];
+        int top = 0;
+        for (int i = 0; i < pendingCount; i++) {
+            int slot = pending[i];
+            reserve(slot);
+            int last = NONE;
+            while (top > 0 && higher(slot, spine[top - 1])) {
+                last = spine[--top];
+                update(last);
+            }
+            lefts[slot] = last;
+            rights[slot] = NONE;
+            if (last != NONE) {
+                parents[last] = slot;
+            }
+            if (top > 0) {
+                rights[spine[top - 1]] = slot;
+                parents[slot] = spine[top - 1];
+            } else {
+                parents[slot] = NONE;
+            }
+            if (top == spine.length) {
+                spine = Arrays.copyOf(spine, top * 2);
+            }
+            spine[top++] = slot;
+        }
+        while (top > 1) {
+            update(spine[--top]);
+        }
+        update(spine[0]);
+        pendingCount = 0;
+        root = merge(root, spine[0]);
+        parents[root] = NONE;
+    }
+
+    // Split the subtree into its first n slots and the rest, left in splitLeft and splitRight
+    private void split(int node, int n) {
+        if (node == NONE) {
+            splitLeft = NONE;
+            splitRight = NONE;
+            return;
+        }
+        int leftCount = count(lefts[node]);
+        if (n <= leftCount) {
+            split(lefts[node], n);
+            setLeft(node, splitRight);
+            splitRight = node;
+            parents[node] = NONE;
+        } else {
+            split(rights[node], n - leftCount - 1);
+            setRight(node, splitLeft);
+            splitLeft = node;
+            parents[node] = NONE;
+        }
+        update(node);
+    }
+
+    // Root of the tree with the slots of a followed by those of b
+    private int merge(int a, int b) {
+        if (a == NONE) {
+            return b;
+        }
+        if (b == NONE) {
+            return a;
+        }
+        if (higher(a, b)) {
+            setRight(a, merge(rights[a], b));
+            update(a);
+            return a;
+        }
+        setLeft(b, merge(a, lefts[b]));
+        update(b);
+        return b;
+    }
+
+    private void setLeft(int node, int child) {
+        lefts[node] = child;
+        if (child != NONE) {
+            parents[child] = node;
+        }
+    }
+
+    private void setRight(int node, int child) {
+        rights[node] = child;
+        if (child != NONE) {
+            parents[child] = node;
+        }
+    }
+
+    private void update(int node) {
+        int left = lefts[node];
+        int right = rights[node];
+        counts[node] = count(left) + count(right) + 1;
+        int maxId = ids.applyAsInt(node);
+        if (left != NONE) {
+            maxId = Math.max(maxId, maxIds[left]);
+        }
+        if (right != NONE) {
+            maxId = Math.max(maxId, maxIds[right]);
+        }
+        maxIds[node] = maxId;
+    }
+
+    private int count(int node) {
+        return node == NONE ? 0 : counts[node];
+    }
+
+    private int leftmost(int node) {
+        while (lefts[node] != NONE) {
+            node = lefts[node];
+        }
+        return node;
+    }
+
+    // Heap order on the priorities, ties broken by slot
+    private static boolean higher(int a, int b) {
+        int pa = priority(a);
+        int pb = priority(b);
+        return pa != pb ? pa > pb : a > b;
+    }
+
+    // Murmur3 finalizer, which spreads consecutive slots over all priorities
+    private static int priority(int slot) {
+        int h = slot;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private void reserve(int slot) {
+        if (slot >= lefts.length) {
+            int length = Math.max(lefts.length * 2, slot + 1);
+            lefts = Arrays.copyOf(lefts, length);
+            rights = Arrays.copyOf(rights, length);
+            parents = Arrays.copyOf(parents, length);
+            counts = Arrays.copyOf(counts, length);
+            maxIds = Arrays.copyOf(maxIds, length);
+        }
+    }
+
+    // Slots in file order and the position of each slot
+    private static class Snapshot {
+        private final int[] slots;
+        private final int[] positions;
+
+        Snapshot(int[] slots, int[] positions) {
+            this.slots = slots;
+            this.positions = positions;
+        }
+    }
+}
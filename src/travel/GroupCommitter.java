@@ -0,0 +1,156 @@
+package travel;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Persistence scheduler for --group-commit: journal records from concurrent writers are collected for a
+// short window (or until the batch size is reached) and written as one group with a single fsync.
+// Each submission completes once its group is durable
+class GroupCommitter {
+    private final long windowNanos;
+    private final int batchSize;
+
+    // Submissions waiting for the next group, in the order their mutations were applied
+    private final ArrayDeque<Submission> queue = new ArrayDeque<>();
+    private int queuedRecords = 0;
+    private boolean writing = false;
+    private boolean flushRequested = false;
+    private boolean stopped = false;
+
+    // Metrics: group sizes in records, and latency from submission until the group is durable
+    private long groups = 0;
+    private long records = 0;
+    private int maxGroup = 0;
+    private long submissions = 0;
+    private long totalLatencyNanos = 0;
+    private long maxLatencyNanos = 0;
+
+    public GroupCommitter(long windowMicros, int batchSize) {
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, windowMicros));
+        this.batchSize = Math.max(1, batchSize);
+        Thread thread = new Thread(this::commitGroups, "group-commit");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Queue newline-terminated records; the future completes when they are on disk
+    public synchronized CompletableFuture<Void> submit(String records, int count) {
+        Submission submission = new Submission(records, count);
+        queue.add(submission);
+        queuedRecords += count;
+        notifyAll();
+        return submission.commit;
+    }
+
+    // Write everything queued now and wait until it is durable; callers hold off new submissions
+    public synchronized void drain() {
+        flushRequested = true;
+        notifyAll();
+        boolean interrupted = false;
+        while (!queue.isEmpty() || writing) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        flushRequested = false;
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Let the committer thread finish the queued groups and exit
+    public synchronized void stop() {
+        stopped = true;
+        notifyAll();
+    }
+
+    public synchronized String metrics() {
+        return String.format(Locale.US,
+                "groups=%d records=%d group avg=%.1f max=%d commit latency avg=%.1f us max=%.1f us",
+                groups, records, groups == 0 ? 0.0 : (double) records / groups, maxGroup,
+                submissions == 0 ? 0.0 : totalLatencyNanos / 1e3 / submissions, maxLatencyNanos / 1e3);
+    }
+
+    private void commitGroups() {
+        while (true) {
+            List<Submission> group = new ArrayList<>();
+            int count = 0;
+            synchronized (this) {
+                try {
+                    while (queue.isEmpty()) {
+                        if (stopped) {
+                            return;
+                        }
+                        wait();
+                    }
+                    // The window opens with the oldest submission
+                    long deadline = queue.peek().submittedAt + windowNanos;
+                    long remaining;
+                    while (queuedRecords < batchSize && !flushRequested && !stopped
+                            && (remaining = deadline - System.nanoTime()) > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                // Whole submissions up to the batch size; the rest waits for the next group
+                while (!queue.isEmpty() && (group.isEmpty() || count + queue.peek().count <= batchSize)) {
+                    Submission submission = queue.poll();
+                    group.add(submission);
+                    count += submission.count;
+                }
+                queuedRecords -= count;
+                writing = true;
+            }
+
+            StringBuilder text = new StringBuilder();
+            for (Submission submission : group) {
+                text.append(submission.records);
+            }
+            IOException failure = null;
+            try {
+                Main.writeJournal(text.toString(), count, true);
+            } catch (IOException e) {
+                failure = e;
+            }
+            long durable = System.nanoTime();
+
+            synchronized (this) {
+                groups++;
+                records += count;
+                maxGroup = Math.max(maxGroup, count);
+                for (Submission submission : group) {
+                    submissions++;
+                    totalLatencyNanos += durable - submission.submittedAt;
+                    maxLatencyNanos = Math.max(maxLatencyNanos, durable - submission.submittedAt);
+                }
+                writing = false;
+                notifyAll();
+            }
+            for (Submission submission : group) {
+                if (failure == null) {
+                    submission.commit.complete(null);
+                } else {
+                    submission.commit.completeExceptionally(failure);
+                }
+            }
+        }
+    }
+
+    // Records of one mutation or batch, and the future its caller waits on
+    private static class Submission {
+        private final String records;
+        private final int count;
+        private final long submittedAt = System.nanoTime();
+        private final CompletableFuture<Void> commit = new CompletableFuture<>();
+
+        Submission(String records, int count) {
+            this.records = records;
+            this.count = count;
+        }
+    }
+}
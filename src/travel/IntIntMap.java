@@ -0,0 +1,84 @@
+package travel;
+
+import java.util.*;
+
+// Open-addressing hash map from int keys to non-negative int values
+class IntIntMap {
+    private int[] keys = new int[16];
+    // Stored as value + 1 so that 0 marks an empty entry
+    private int[] values = new int[16];
+    private int size;
+
+    public void clear() {
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    // Value for the key, or -1 if absent
+    public int get(int key) {
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; values[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i] - 1;
+            }
+        }
+        return -1;
+    }
+
+    public void put(int key, int value) {
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (values[i] != 0 && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        if (values[i] == 0) {
+            size++;
+        }
+        keys[i] = key;
+        values[i] = value + 1;
+    }
+
+    public void remove(int key) {
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (values[i] != 0 && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        if (values[i] == 0) {
+            return;
+        }
+        // Shift following entries back so that lookups never need tombstones
+        for (int j = (i + 1) & mask; values[j] != 0; j = (j + 1) & mask) {
+            int home = hash(keys[j]) & mask;
+            boolean between = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+            if (!between) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        values[i] = 0;
+        size--;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0) {
+                put(oldKeys[i], oldValues[i] - 1);
+            }
+        }
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,114 @@
+package travel;
+
+import java.util.*;
+
+// Interval index over the days each travel is under way, from its date to its last day (date plus days,
+// minus one): counts trips active in a window by subtracting the trips that ended before it from those
+// that started by its end, and keeps a running count per day for the busiest day. Travels without days
+// are never under way; they are kept apart so that the subtraction leaves them out
+class IntervalIndex implements TravelIndex {
+    private final TravelStore store;
+    private final SortedIndex starts;
+    private final SortedIndex lastDays;
+    // Dates of the travels without days, which the start index counts as well
+    private final SortedIndex emptyStarts;
+    // Durations with their number of trips; the longest bounds how far back an overlapping trip can start
+    private final TreeMap<Integer, Integer> durations = new TreeMap<>();
+    private final DayCounts dayCounts = new DayCounts();
+
+    // The start index is the repository's date index, which it maintains itself
+    public IntervalIndex(TravelStore store, SortedIndex starts) {
+        this.store = store;
+        this.starts = starts;
+        this.lastDays = new SortedIndex(slot -> lastDay(store, slot));
+        this.emptyStarts = new SortedIndex(store::getEpochDay);
+    }
+
+    // Last day a travel is under way; a travel without days ends the day before it starts
+    public static long lastDay(TravelStore store, int slot) {
+        return (long) store.getEpochDay(slot) + Math.max(store.getDays(slot), 0) - 1;
+    }
+
+    private static boolean isEmpty(TravelStore store, int slot) {
+        return store.getDays(slot) <= 0;
+    }
+
+    @Override
+    public void added(int slot) {
+        (isEmpty(store, slot) ? emptyStarts : lastDays).added(slot);
+        durations.merge(Math.max(store.getDays(slot), 0), 1, Integer::sum);
+        dayCounts.add(store.getEpochDay(slot), lastDay(store, slot), 1);
+    }
+
+    @Override
+    public void removed(int slot) {
+        (isEmpty(store, slot) ? emptyStarts : lastDays).removed(slot);
+        durations.computeIfPresent(Math.max(store.getDays(slot), 0), (days, count) -> count > 1 ? count - 1 : null);
+        dayCounts.add(store.getEpochDay(slot), lastDay(store, slot), -1);
+    }
+
+    @Override
+    public void rebuild(int[] liveSlots, int count) {
+        int[] withDays = new int[count];
+        int[] withoutDays = new int[count];
+        int withCount = 0;
+        int withoutCount = 0;
+        durations.clear();
+        dayCounts.clear();
+        for (int i = 0; i < count; i++) {
+            int slot = liveSlots[i];
+            if (isEmpty(store, slot)) {
+                withoutDays[withoutCount++] = slot;
+            } else {
+                withDays[withCount++] = slot;
+            }
+            durations.merge(Math.max(store.getDays(slot), 0), 1, Integer::sum);
+            dayCounts.add(store.getEpochDay(slot), lastDay(store, slot), 1);
+        }
+        lastDays.rebuild(withDays, withCount);
+        emptyStarts.rebuild(withoutDays, withoutCount);
+    }
+
+    // Number of travels under way on at least one day of [low, high]
+    public int count(double low, double high) {
+        if (Double.isNaN(low) || Double.isNaN(high) || low > high) {
+            return 0;
+        }
+        return Math.max(starts.upperBound(high) - emptyStarts.upperBound(high) - lastDays.lowerBound(low), 0);
+    }
+
+    // Slots of the travels under way on at least one day of [low, high], found through whichever
+    // index has fewer candidates: starts no earlier than the longest trip before low, or last days
+    // no later than the longest trip after high
+    public BitSet slots(double low, double high) {
+        BitSet result = new BitSet();
+        if (count(low, high) == 0) {
+            return result;
+        }
+        int longest = durations.isEmpty() ? 0 : durations.lastKey();
+        int startFrom = starts.lowerBound(low - longest + 1);
+        int startTo = starts.upperBound(high);
+        int lastFrom = lastDays.lowerBound(low);
+        int lastTo = lastDays.upperBound(high + longest - 1);
+        if (startTo - startFrom <= lastTo - lastFrom) {
+            starts.forEach(startFrom, startTo, slot -> {
+                if (lastDay(store, slot) >= low && !isEmpty(store, slot)) {
+                    result.set(slot);
+                }
+            });
+        } else {
+            lastDays.forEach(lastFrom, lastTo, slot -> {
+                if (store.getEpochDay(slot) <= high) {
+                    result.set(slot);
+                }
+            });
+        }
+        return result;
+    }
+
+    // The earliest day in [low, high] with the most travels under way and their number,
+    // or null when no travel is under way in the window
+    public long[] busiest(long low, long high) {
+        return dayCounts.max(low, high);
+    }
+}
@@ -0,0 +1,10 @@
+package travel;
+
+// Launch options that are not global state: where commands come from and how group commit is tuned
+class LaunchOptions {
+    String batchFile = null;
+    int serverPort = -1;
+    boolean groupCommit = false;
+    long commitWindowMicros = Main.COMMIT_WINDOW_MICROS;
+    int commitBatchSize = Main.COMMIT_BATCH_SIZE;
+}
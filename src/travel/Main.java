@@ -0,0 +1,1655 @@
+package travel;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+public class Main {
+    // Constants for file operations
+    static final String FILE_NAME = "db.csv";
+    static final String DELIMITER = ";";
+    static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    // DecimalFormat is not thread-safe, so each server connection thread formats with its own instance
+    static final ThreadLocal<DecimalFormat> DECIMAL_FORMAT = ThreadLocal.withInitial(
+            () -> new DecimalFormat("#0.00", DecimalFormatSymbols.getInstance(Locale.US)));
+
+    // Constants for the append-only journal
+    static final String JOURNAL_FILE_NAME = "db.journal";
+    static final String JOURNAL_HEADER = "#SNAPSHOT";
+    static final int COMPACTION_THRESHOLD = 1000;
+
+    // Journal state: enabled with the --journal launch option; the group committer thread updates the count
+    static boolean journalEnabled = false;
+    static volatile int journalRecords = 0;
+
+    // Group commit defaults: records queued while the previous group is being synced, plus those arriving
+    // within the window (none by default), share one fsync, up to the batch size
+    static final long COMMIT_WINDOW_MICROS = 0;
+    static final int COMMIT_BATCH_SIZE = 128;
+
+    // Group commit state: with --group-commit journal records are queued and fsynced in groups
+    static GroupCommitter groupCommitter = null;
+
+    // City names of all loaded and added rows, each stored once
+    static final CityDictionary cityDictionary = new CityDictionary();
+
+    // Constants for the binary snapshot
+    static final String SNAPSHOT_FILE_NAME = "db.bin";
+    static final String EXPORT_FILE_NAME = "travels.bin";
+
+    // Binary snapshot state: with --snapshot, db.bin is loaded instead of db.csv while it matches it
+    static boolean snapshotEnabled = false;
+
+    // Data file, its journal and its binary snapshot: db.csv, db.journal and db.bin in the working
+    // directory unless --file=<path> is given
+    static Path dataFile = Paths.get(FILE_NAME);
+    static Path journalFile = Paths.get(JOURNAL_FILE_NAME);
+    static Path snapshotFile = Paths.get(SNAPSHOT_FILE_NAME);
+
+    // CRC32 of the data file for the journal header; taken from db.bin when loading it, so that db.csv is
+    // not read just to checksum it, and otherwise computed on first use. Null until known
+    static Long dataFileChecksum = null;
+
+    // Loader choice: the memory-mapped byte parser, or the Scanner-based parser with --loader=scanner;
+    // --loader=parallel parses chunks on --threads=N threads (all cores by default)
+    static boolean scannerLoader = false;
+    static boolean parallelLoader = false;
+    static int loaderThreads = Runtime.getRuntime().availableProcessors();
+
+    // Instrumentation: latency histograms and byte counts for the stats command with --stats,
+    // JFR events for a flight recording with --jfr
+    static boolean statsEnabled = false;
+    static boolean jfrEnabled = false;
+
+    // Port of the localhost server started with --server[=port]
+    static final int SERVER_PORT = 7070;
+
+    // Storage engine: Travel objects, or parallel primitive columns with --store=columnar
+    static boolean columnarStore = false;
+
+    // Commands by upper-case name, for command words that are not plain lower-case ASCII
+    static final Map<String, Command> COMMANDS_BY_NAME = new HashMap<>();
+    static {
+        for (Command command : Command.values()) {
+            COMMANDS_BY_NAME.put(command.name(), command);
+        }
+    }
+
+    static final String[] NO_ARGS = new String[0];
+
+    // What parseInteger returns for text that is not an int
+    static final long NOT_AN_INT = Long.MIN_VALUE;
+
+    // Map to store command arguments
+    static final Map<Command, Integer> COMMAND_ARGUMENTS = new HashMap<>();
+    static {
+        COMMAND_ARGUMENTS.put(Command.PRINT, 2);
+        COMMAND_ARGUMENTS.put(Command.ADD, 6);
+        COMMAND_ARGUMENTS.put(Command.DEL, 1);
+        COMMAND_ARGUMENTS.put(Command.EDIT, 6);
+        COMMAND_ARGUMENTS.put(Command.SORT, 1);
+        COMMAND_ARGUMENTS.put(Command.FIND, 4);
+        COMMAND_ARGUMENTS.put(Command.AVG, 1);
+        COMMAND_ARGUMENTS.put(Command.EXPORT, 1);
+        COMMAND_ARGUMENTS.put(Command.IMPORT, 1);
+        COMMAND_ARGUMENTS.put(Command.BEGIN, 0);
+        COMMAND_ARGUMENTS.put(Command.COMMIT, 0);
+        COMMAND_ARGUMENTS.put(Command.ABORT, 0);
+        COMMAND_ARGUMENTS.put(Command.NEXT, 0);
+        COMMAND_ARGUMENTS.put(Command.EXPLAIN, 1);
+        COMMAND_ARGUMENTS.put(Command.COUNT, 1);
+        COMMAND_ARGUMENTS.put(Command.COMPACT, 0);
+        COMMAND_ARGUMENTS.put(Command.BUSIEST, 2);
+        COMMAND_ARGUMENTS.put(Command.STATS, 0);
+        COMMAND_ARGUMENTS.put(Command.CITIES, 1);
+        COMMAND_ARGUMENTS.put(Command.EXIT, 0);
+    }
+
+    // Main method
+    public static void main(String[] mainArgs) {
+        LaunchOptions options = parseOptions(mainArgs);
+        startServices(options);
+        String batchFile = options.batchFile;
+
+        // Scanner for user input, or for the batch file ("-" reads a whole batch from stdin)
+        Scanner scanner;
+        if (batchFile == null || batchFile.equals("-")) {
+            scanner = new Scanner(System.in);
+        } else {
+            try {
+                scanner = new Scanner(new File(batchFile));
+            } catch (FileNotFoundException e) {
+                System.out.println("Error reading file.");
+                return;
+            }
+        }
+        // Read data from file
+        TravelRepository travels = readDataFromFile();
+
+        // If the file does not exist, create it with default data
+        if (travels.isEmpty()) {
+            createDefaultFile();
+            travels = readDataFromFile();
+        }
+
+        // Serve the same commands over TCP instead of the console
+        if (options.serverPort >= 0) {
+            try {
+                System.out.println("listening on port " + new TravelServer(travels).start(options.serverPort));
+            } catch (IOException e) {
+                System.out.println("Error starting server.");
+            }
+            return;
+        }
+
+        // The console is a single session writing to System.out
+        Session session = new Session(System.out);
+
+        // A batch file runs as one batch that is committed when it ends
+        if (batchFile != null) {
+            beginBatch(travels, session);
+        }
+
+        while (true) {
+            // Display command menu
+            /*System.out.println("--------------------------------------------------------------------");
+            System.out.println("|                  Travel Information System                       |");
+            System.out.println("--------------------------------------------------------------------");
+            System.out.printf("| %-7s| %-31s| %-23s|%n", "Command", "Arguments", "Description");
+            System.out.println("--------------------------------------------------------------------");
+            System.out.printf("| %-7s| %-31s| %-23s|%n", "print", "", "View travels");
+            System.out.printf("| %-7s| %-31s| %-23s|%n", "add", "id;city;date;days;price;vehicle", "Add new travel");
+            System.out.printf("| %-7s| %-31s| %-23s|%n", "del", "id", "Delete travel");
+            System.out.printf("| %-7s| %-31s| %-23s|%n", "edit", "id;city;date;days;price;vehicle", "Update travel");
+            System.out.printf("| %-7s| %-31s| %-23s|%n", "sort", "", "Sort travels by date");
+            System.out.printf("| %-7s| %-31s| %-23s|%n", "find", "price", "Filter travels by price");
+            System.out.printf("| %-7s| %-31s| %-23s|%n", "avg", "", "Calculate average price");
+            System.out.printf("| %-7s| %-31s| %-23s|%n", "exit", "", "Exit");
+            System.out.println("--------------------------------------------------------------------");
+
+            // Prompt for command input
+            System.out.print("Enter command: ");*/
+
+            // Read user input; the end of a batch file commits the batch
+            if (batchFile != null && !scanner.hasNextLine()) {
+                commitBatch(travels, session);
+                awaitCommit(session);
+                return;
+            }
+            String input = scanner.nextLine().trim().toLowerCase();
+
+            if (commandOf(input) == Command.EXIT) {
+                //System.out.println("Exiting...");
+                // An open batch is committed when it came from a batch file and discarded otherwise
+                if (batchFile != null) {
+                    commitBatch(travels, session);
+                    awaitCommit(session);
+                }
+                System.exit(0);
+            }
+            execute(input, travels, session);
+            awaitCommit(session);
+        }
+    }
+
+    // Parse launch options; those choosing storage, loading and instrumentation set their global state directly
+    static LaunchOptions parseOptions(String[] mainArgs) {
+        LaunchOptions options = new LaunchOptions();
+        for (int i = 0; i < mainArgs.length; i++) {
+            String option = mainArgs[i];
+            if (option.equals("--batch") && i + 1 < mainArgs.length) {
+                options.batchFile = mainArgs[++i];
+            } else if (option.startsWith("--batch=")) {
+                options.batchFile = option.substring("--batch=".length());
+            } else if (option.equals("--journal")) {
+                journalEnabled = true;
+            } else if (option.equals("--group-commit")) {
+                options.groupCommit = true;
+            } else if (option.startsWith("--commit-window=")) {
+                // Milliseconds, fractions allowed
+                options.commitWindowMicros =
+                        Math.round(Double.parseDouble(option.substring("--commit-window=".length())) * 1000);
+            } else if (option.startsWith("--commit-batch=")) {
+                options.commitBatchSize = Integer.parseInt(option.substring("--commit-batch=".length()));
+            } else if (option.equals("--stats")) {
+                statsEnabled = true;
+            } else if (option.equals("--jfr")) {
+                jfrEnabled = true;
+            } else if (option.equals("--loader=scanner")) {
+                scannerLoader = true;
+            } else if (option.equals("--loader=parallel")) {
+                parallelLoader = true;
+            } else if (option.equals("--loader=serial")) {
+                parallelLoader = false;
+            } else if (option.equals("--snapshot")) {
+                snapshotEnabled = true;
+            } else if (option.equals("--store=columnar")) {
+                columnarStore = true;
+            } else if (option.startsWith("--file=")) {
+                useDataFile(Paths.get(option.substring("--file=".length())));
+            } else if (option.startsWith("--threads=")) {
+                loaderThreads = Integer.parseInt(option.substring("--threads=".length()));
+            } else if (option.equals("--server")) {
+                options.serverPort = SERVER_PORT;
+            } else if (option.startsWith("--server=")) {
+                options.serverPort = Integer.parseInt(option.substring("--server=".length()));
+            }
+        }
+        return options;
+    }
+
+    // Start instrumentation and, with --group-commit, the group committer
+    static void startServices(LaunchOptions options) {
+        Stats.configure();
+        // Group commit writes through the journal
+        if (options.groupCommit) {
+            journalEnabled = true;
+            groupCommitter = new GroupCommitter(options.commitWindowMicros, options.commitBatchSize);
+        }
+    }
+
+    // The command an input line starts with, or null if it names none
+    static Command commandOf(String input) {
+        return lookupCommand(input, commandEnd(input));
+    }
+
+    // End of the command word: the first regex whitespace character (\s), or the end of the line
+    static int commandEnd(String input) {
+        int end = 0;
+        while (end < input.length() && !isRegexSpace(input.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    // The characters \s matches: space, tab, newline, vertical tab, form feed and carriage return
+    static boolean isRegexSpace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    // Command named by input[0, end), matched like Command.valueOf(word.toUpperCase()) but without building
+    // the word: lower-case ASCII words go through a switch, anything else is upper-cased and looked up by name
+    static Command lookupCommand(String input, int end) {
+        for (int i = 0; i < end; i++) {
+            char c = input.charAt(i);
+            if (c < 'a' || c > 'z') {
+                return COMMANDS_BY_NAME.get(input.substring(0, end).toUpperCase());
+            }
+        }
+        if (end == 0) {
+            return null;
+        }
+        switch (input.charAt(0)) {
+            case 'a':
+                return isWord(input, end, "add") ? Command.ADD : isWord(input, end, "avg") ? Command.AVG
+                        : isWord(input, end, "abort") ? Command.ABORT : null;
+            case 'b':
+                return isWord(input, end, "begin") ? Command.BEGIN : isWord(input, end, "busiest") ? Command.BUSIEST : null;
+            case 'c':
+                return isWord(input, end, "count") ? Command.COUNT : isWord(input, end, "commit") ? Command.COMMIT
+                        : isWord(input, end, "compact") ? Command.COMPACT : isWord(input, end, "cities") ? Command.CITIES
+                        : null;
+            case 'd':
+                return isWord(input, end, "del") ? Command.DEL : null;
+            case 'e':
+                return isWord(input, end, "edit") ? Command.EDIT : isWord(input, end, "exit") ? Command.EXIT
+                        : isWord(input, end, "export") ? Command.EXPORT : isWord(input, end, "explain") ? Command.EXPLAIN
+                        : null;
+            case 'f':
+                return isWord(input, end, "find") ? Command.FIND : null;
+            case 'i':
+                return isWord(input, end, "import") ? Command.IMPORT : null;
+            case 'n':
+                return isWord(input, end, "next") ? Command.NEXT : null;
+            case 'p':
+                return isWord(input, end, "print") ? Command.PRINT : null;
+            case 's':
+                return isWord(input, end, "sort") ? Command.SORT : isWord(input, end, "stats") ? Command.STATS : null;
+            default:
+                return null;
+        }
+    }
+
+    static boolean isWord(String input, int end, String word) {
+        return end == word.length() && input.startsWith(word);
+    }
+
+    // Arguments after the command word, as split("\\s+", 2) and then split(";") produced them: everything
+    // after the whitespace run, cut at each ';' with trailing empty arguments dropped
+    static String[] commandArgs(String input, int end) {
+        if (end == input.length()) {
+            return NO_ARGS;
+        }
+        int from = end;
+        while (from < input.length() && isRegexSpace(input.charAt(from))) {
+            from++;
+        }
+        // Count the arguments up to the last non-empty one
+        int count = 0;
+        int kept = 0;
+        int start = from;
+        for (int i = from; i <= input.length(); i++) {
+            if (i == input.length() || input.charAt(i) == ';') {
+                count++;
+                if (i > start) {
+                    kept = count;
+                }
+                start = i + 1;
+            }
+        }
+        // Without any ';' the whole rest is the one argument, even when empty
+        if (count == 1) {
+            return new String[]{input.substring(from)};
+        }
+        String[] args = new String[kept];
+        start = from;
+        for (int i = 0; i < kept; i++) {
+            int stop = input.indexOf(';', start);
+            args[i] = input.substring(start, stop < 0 ? input.length() : stop);
+            start = stop + 1;
+        }
+        return args;
+    }
+
+    // Run one lower-cased input line other than exit
+    static void execute(String input, TravelRepository travels, Session session) {
+        long started = Stats.start();
+        int end = commandEnd(input);
+        Command command = lookupCommand(input, end);
+        if (command == null) {
+            session.out.println("wrong command");
+            return;
+        }
+        try {
+            String[] args = commandArgs(input, end);
+            Stats.phase(Stats.Phase.PARSE, started);
+
+            // Process user command
+            switch (command) {
+                case PRINT:
+                    printTravels(args, travels, session);
+                    break;
+                case ADD:
+                    addTravel(travels, args, session);
+                    break;
+                case DEL:
+                    deleteTravel(travels, args, session);
+                    break;
+                case EDIT:
+                    editTravel(travels, args, session);
+                    break;
+                case SORT:
+                    sortTravels(args, travels, session);
+                    break;
+                case COMPACT:
+                    compactTravels(args, travels, session);
+                    break;
+                case FIND:
+                    findTravels(args, travels, session);
+                    break;
+                case AVG:
+                    calculateAveragePrice(args, travels, session);
+                    break;
+                case EXPORT:
+                    exportTravels(args, travels, session);
+                    break;
+                case IMPORT:
+                    importTravels(args, travels, session);
+                    break;
+                case BEGIN:
+                    if (session.batchRecords != null) {
+                        session.out.println("batch already started");
+                    } else {
+                        beginBatch(travels, session);
+                        session.out.println("started");
+                    }
+                    break;
+                case COMMIT:
+                    if (session.batchRecords == null) {
+                        session.out.println("no batch");
+                    } else {
+                        commitBatch(travels, session);
+                        session.out.println("committed");
+                    }
+                    break;
+                case ABORT:
+                    if (session.batchRecords == null) {
+                        session.out.println("no batch");
+                    } else {
+                        abortBatch(travels, session);
+                        session.out.println("aborted");
+                    }
+                    break;
+                case EXPLAIN:
+                    explainQuery(args, travels, session);
+                    break;
+                case COUNT:
+                    countTravels(args, travels, session);
+                    break;
+                case BUSIEST:
+                    busiestDay(args, travels, session);
+                    break;
+                case STATS:
+                    Stats.print(args, session.out);
+                    break;
+                case CITIES:
+                    listCities(args, travels, session);
+                    break;
+                case NEXT:
+                    if (session.pageCursor == null) {
+                        session.out.println("no more pages");
+                    } else {
+                        printPage(travels, session.pageCursor, 0, session);
+                    }
+                    break;
+            }
+        } finally {
+            Stats.command(command, started);
+        }
+    }
+
+    // Switch to another data file; its journal and binary snapshot sit next to it
+    static void useDataFile(Path path) {
+        String name = path.getFileName().toString();
+        String baseName = name.endsWith(".csv") ? name.substring(0, name.length() - 4) : name;
+        dataFile = path;
+        journalFile = path.resolveSibling(baseName + ".journal");
+        snapshotFile = path.resolveSibling(baseName + ".bin");
+        journalRecords = 0;
+        dataFileChecksum = null;
+    }
+
+    // Read data from file
+    static TravelRepository readDataFromFile() {
+        long started = Stats.start();
+        TravelRepository travels = new TravelRepository();
+        File file = dataFile.toFile();
+        dataFileChecksum = null;
+
+        try {
+            if (snapshotEnabled && BinarySnapshot.load(snapshotFile, travels, BinarySnapshot.stamp(dataFile))) {
+                dataFileChecksum = BinarySnapshot.sourceChecksum(snapshotFile);
+            } else {
+                travels.clear();
+                if (scannerLoader) {
+                    loadWithScanner(file, travels);
+                } else {
+                    new CsvLoader(travels, parallelLoader ? loaderThreads : 1).load(file.toPath());
+                }
+
+                // Rebuild the binary snapshot lazily, so that the next start can skip CSV parsing
+                if (snapshotEnabled) {
+                    BinarySnapshot.write(snapshotFile, travels, BinarySnapshot.stamp(dataFile), dataFileChecksum());
+                }
+            }
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            //System.out.println("File not found. Creating a new file...");
+            createDefaultFile();
+            return travels;
+        } catch (IOException e) {
+            System.out.println("Error reading file.");
+            return travels;
+        }
+
+        // Apply mutations recorded after the snapshot was written
+        replayJournal(travels);
+
+        Stats.phase(Stats.Phase.FILE_READ, started);
+        return travels;
+    }
+
+    // Read data line by line with a Scanner and String.split
+    static void loadWithScanner(File file, TravelRepository travels) throws FileNotFoundException {
+        try (Scanner scanner = new Scanner(file)) {
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine();
+                String[] parts = line.split(DELIMITER);
+                Travel travel = parts.length == 6 ? parseTravel(parts, 0) : null;
+                if (travel == null) {
+                    System.out.println("Invalid data format: " + line);
+                } else if (!travels.append(travel)) {
+                    System.out.println("Duplicate id: " + line);
+                }
+            }
+        }
+    }
+
+    // Parse a travel from six stored fields starting at offset, or null if a field is malformed
+    static Travel parseTravel(String[] parts, int offset) {
+        long id = parseInteger(parts[offset]);
+        LocalDate date = parseDate(parts[offset + 2]);
+        long days = parseInteger(parts[offset + 3]);
+        String price = parts[offset + 4].replace(',', '.');
+        VehicleType vehicle = VehicleType.of(parts[offset + 5]);
+        if (id == NOT_AN_INT || date == null || days == NOT_AN_INT || !isDouble(price) || vehicle == null
+                || !storablePrice(Double.parseDouble(price))) {
+            return null;
+        }
+        String city = cityDictionary.intern(parts[offset + 1]);
+        return new Travel((int) id, city, date, (int) days, Double.parseDouble(price), vehicle);
+    }
+
+    // Format a travel as a stored line, separating fields with DELIMITER
+    static String formatTravel(Travel travel) {
+        return travel.getId() + DELIMITER + travel.getCity() + DELIMITER +
+                travel.getDate().format(DATE_FORMATTER) + DELIMITER +
+                travel.getDays() + DELIMITER + DECIMAL_FORMAT.get().format(travel.getPrice()) + DELIMITER + travel.getVehicle();
+    }
+
+    // Replay the journal on top of the loaded snapshot
+    static void replayJournal(TravelRepository travels) {
+        Path journal = journalFile;
+        if (!Files.exists(journal)) {
+            return;
+        }
+
+        try {
+            byte[] content = Files.readAllBytes(journal);
+
+            // A record without its trailing newline was torn by a crash and is cut off
+            int end = content.length;
+            while (end > 0 && content[end - 1] != '\n') {
+                end--;
+            }
+            String[] records = new String(content, 0, end, StandardCharsets.UTF_8).split("\n");
+
+            // The journal only applies to the snapshot it was started against
+            if (!records[0].equals(snapshotHeader())) {
+                Files.delete(journal);
+                return;
+            }
+
+            // Records between BEGIN and COMMIT apply together; a group cut off by a crash is dropped
+            List<String> group = null;
+            for (int i = 1; i < records.length; i++) {
+                if (records[i].equals("BEGIN")) {
+                    group = new ArrayList<>();
+                } else if (records[i].equals("COMMIT") && group != null) {
+                    group.forEach(record -> applyJournalRecord(travels, record));
+                    group = null;
+                } else if (group != null) {
+                    group.add(records[i]);
+                } else {
+                    applyJournalRecord(travels, records[i]);
+                }
+            }
+            int kept = records.length - 1;
+
+            // A group cut off is cut from the file as well, back to its BEGIN: records appended later would
+            // otherwise join it on the next replay, and be dropped with it or commit it with a later COMMIT
+            if (group != null) {
+                end = lastLine(content, end, "BEGIN");
+                kept -= group.size() + 1;
+            }
+            if (end < content.length) {
+                try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+                    channel.truncate(end);
+                }
+            }
+            journalRecords = kept;
+        } catch (IOException e) {
+            System.out.println("Error reading journal.");
+        }
+    }
+
+    // Offset of the last line in content[0, end) that equals the given ASCII text, or end if there is none
+    static int lastLine(byte[] content, int end, String line) {
+        for (int start = end - line.length() - 1; start >= 0; start--) {
+            if (start > 0 && content[start - 1] != '\n') {
+                continue;
+            }
+            boolean matches = content[start + line.length()] == '\n';
+            for (int i = 0; matches && i < line.length(); i++) {
+                matches = content[start + i] == line.charAt(i);
+            }
+            if (matches) {
+                return start;
+            }
+        }
+        return end;
+    }
+
+    // Apply a single journal record to the list of travels
+    // (a malformed record is reported and skipped, so it cannot stop every later start)
+    static void applyJournalRecord(TravelRepository travels, String record) {
+        String[] parts = record.split(DELIMITER);
+        Travel travel = parts.length >= 7 ? parseTravel(parts, 1) : null;
+        long id = parts.length >= 2 ? parseInteger(parts[1]) : NOT_AN_INT;
+        if (parts[0].equals("ADD") && travel != null) {
+            travels.add(travel);
+        } else if (parts[0].equals("EDIT") && travel != null) {
+            travels.replace(travel);
+        } else if (parts[0].equals("DEL") && id != NOT_AN_INT) {
+            travels.remove((int) id);
+        } else if (parts[0].equals("SORT")) {
+            travels.sortByDate();
+        } else {
+            System.out.println("Invalid journal record: " + record);
+        }
+    }
+
+    // Header identifying the snapshot a journal belongs to (size and checksum of db.csv)
+    static String snapshotHeader() throws IOException {
+        return JOURNAL_HEADER + DELIMITER + Files.size(dataFile) + DELIMITER + Long.toHexString(dataFileChecksum());
+    }
+
+    // CRC32 of the data file, read from it only when neither db.bin nor the last rewrite recorded it
+    static long dataFileChecksum() throws IOException {
+        if (dataFileChecksum == null) {
+            CRC32 crc = new CRC32();
+            crc.update(Files.readAllBytes(dataFile));
+            dataFileChecksum = crc.getValue();
+        }
+        return dataFileChecksum;
+    }
+
+    // Persist a single mutation, either as a journal record or as a full file rewrite
+    // (a null record asks for a full rewrite); inside a batch the record is only collected
+    static void persist(TravelRepository travels, String record, Session session) {
+        if (session.batchRecords != null) {
+            if (record == null) {
+                session.batchNeedsRewrite = true;
+            } else {
+                session.batchRecords.add(record);
+            }
+        } else if (journalEnabled && record != null) {
+            appendJournal(travels, record + "\n", 1, session);
+        } else {
+            updateFile(travels, session);
+        }
+    }
+
+    // Start a batch: mutations stay in memory and can be undone until commit
+    static void beginBatch(TravelRepository travels, Session session) {
+        session.batchRecords = new ArrayList<>();
+        session.batchNeedsRewrite = false;
+        travels.beginBatch();
+    }
+
+    // Persist everything the batch changed with a single write
+    static void commitBatch(TravelRepository travels, Session session) {
+        List<String> records = session.batchRecords;
+        session.batchRecords = null;
+        travels.commitBatch();
+        if (session.batchNeedsRewrite || (!journalEnabled && !records.isEmpty())) {
+            updateFile(travels, session);
+        } else if (records.size() == 1) {
+            appendJournal(travels, records.get(0) + "\n", 1, session);
+        } else if (!records.isEmpty()) {
+            // BEGIN/COMMIT markers make the group all-or-nothing on replay
+            StringBuilder group = new StringBuilder("BEGIN\n");
+            for (String record : records) {
+                group.append(record).append('\n');
+            }
+            group.append("COMMIT\n");
+            appendJournal(travels, group.toString(), records.size(), session);
+        }
+    }
+
+    // Restore the state from before the batch
+    static void abortBatch(TravelRepository travels, Session session) {
+        session.batchRecords = null;
+        travels.rollbackBatch();
+    }
+
+    // Append newline-terminated records to the journal, compacting it once it grows past the threshold;
+    // with group commit the records are queued and the caller waits for them in awaitCommit
+    static void appendJournal(TravelRepository travels, String records, int count, Session session) {
+        if (groupCommitter != null) {
+            // Compaction writes the current state, which already holds these records
+            if (journalRecords >= COMPACTION_THRESHOLD) {
+                compactJournal(travels, session);
+            } else {
+                session.pendingCommit = groupCommitter.submit(records, count);
+            }
+            return;
+        }
+        try {
+            writeJournal(records, count, false);
+        } catch (IOException e) {
+            session.out.println("Error updating file.");
+            return;
+        }
+
+        if (journalRecords >= COMPACTION_THRESHOLD) {
+            compactJournal(travels, session);
+        }
+    }
+
+    // Write records to the journal, starting it with the snapshot header; with sync they are on disk on return
+    static void writeJournal(String records, int count, boolean sync) throws IOException {
+        long started = Stats.start();
+        Path journal = journalFile;
+        if (journalRecords == 0 || !Files.exists(journal)) {
+            Files.write(journal, (snapshotHeader() + "\n").getBytes(StandardCharsets.UTF_8));
+            journalRecords = 0;
+        }
+        // Header and records each go out in a single write so a crash can only tear the last line
+        byte[] bytes = records.getBytes(StandardCharsets.UTF_8);
+        if (sync) {
+            try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+        } else {
+            Files.write(journal, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        journalRecords += count;
+        Stats.bytesWritten(bytes.length, started);
+    }
+
+    // Wait until the group holding this thread's last mutation is durable
+    static void awaitCommit(Session session) {
+        CompletableFuture<Void> commit = session.pendingCommit;
+        if (commit == null) {
+            return;
+        }
+        session.pendingCommit = null;
+        try {
+            commit.join();
+        } catch (CompletionException e) {
+            session.out.println("Error updating file.");
+        }
+    }
+
+    // Fold the journal into the data file: the full rewrite holds every mutation it recorded
+    static void compactJournal(TravelRepository travels, Session session) {
+        updateFile(travels, session);
+    }
+
+    // Replace the data file through a temporary file that is synced and then renamed over it, so that a crash
+    // leaves the old or the new file but never a partial one. Checksummed on the way out, so the next journal
+    // header needs no read of the new file
+    static void writeDataFile(Iterable<Travel> travels) throws IOException {
+        long started = Stats.start();
+        Path temp = dataFile.resolveSibling(dataFile.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             PrintWriter writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+                     new CheckedOutputStream(file, crc))))) {
+            for (Travel travel : travels) {
+                writer.println(formatTravel(travel));
+            }
+            writer.flush();
+            if (writer.checkError()) {
+                throw new IOException("write failed: " + temp);
+            }
+            file.getFD().sync();
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Stats.fileWritten(temp, started);
+        try {
+            Files.move(temp, dataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, dataFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+        dataFileChecksum = crc.getValue();
+    }
+
+    // Create default data file
+    static void createDefaultFile() {
+        List<Travel> travels = List.of(
+                new Travel(101, "Daugavpils", LocalDate.of(2021, 7, 3), 5, 150.50, VehicleType.TRAIN),
+                new Travel(102, "Rome", LocalDate.of(2021, 5, 15), 7, 300.00, VehicleType.BUS),
+                new Travel(103, "Hamburg", LocalDate.of(2021, 9, 15), 10, 500.50, VehicleType.PLANE),
+                new Travel(104, "Helsinki", LocalDate.of(2021, 6, 10), 3, 250.00, VehicleType.BOAT),
+                new Travel(105, "New York", LocalDate.of(2021, 8, 16), 5, 1000.00, VehicleType.PLANE));
+        try {
+            writeDataFile(travels);
+        } catch (IOException e) {
+            System.out.println("Error creating file.");
+        }
+    }
+
+    // Print table of travels
+    static void printTable(Iterable<Travel> travels, Session session) {
+        TableRenderer renderer = new TableRenderer(session.out);
+        renderer.header();
+        travels.forEach(renderer::row);
+        renderer.footer();
+    }
+
+    // Print all travels, or one page of them with limit=N and offset=N, in the order chosen with sort
+    static void printTravels(String[] args, TravelRepository travels, Session session) {
+        if (args.length == 0) {
+            printTable(travels.inOrder(session.printOrder), session);
+        } else if (pagingStart(args) != 0) {
+            session.out.println("wrong field count");
+        } else {
+            startPaging(args, 0, new ArrayList<>(), session.printOrder, travels, session);
+        }
+    }
+
+    // Index of the first limit=/offset= argument; paging arguments come after all others
+    static int pagingStart(String[] args) {
+        int start = args.length;
+        while (start > 0 && (args[start - 1].startsWith("limit=") || args[start - 1].startsWith("offset="))) {
+            start--;
+        }
+        return start;
+    }
+
+    // Parse the paging arguments from the given index and print the first page
+    static void startPaging(String[] args, int from, List<Condition> conditions, SortKey order,
+                                    TravelRepository travels, Session session) {
+        int limit = Integer.MAX_VALUE;
+        int offset = 0;
+        for (int i = from; i < args.length; i++) {
+            boolean isLimit = args[i].startsWith("limit=");
+            long value = parseInteger(args[i].substring(args[i].indexOf('=') + 1));
+            if (isLimit && value > 0) {
+                limit = (int) value;
+            } else if (!isLimit && value >= 0) {
+                offset = (int) value;
+            } else {
+                session.out.println(isLimit ? "wrong limit" : "wrong offset");
+                return;
+            }
+        }
+        printPage(travels, new PageCursor(conditions, order, limit), offset, session);
+    }
+
+    // Stream one page straight into the renderer and keep the cursor if more rows follow
+    static void printPage(TravelRepository travels, PageCursor cursor, int offset, Session session) {
+        TableRenderer renderer = new TableRenderer(session.out);
+        renderer.header();
+        cursor.position = travels.scan(cursor.order, cursor.position, cursor.conditions, offset, cursor.limit,
+                renderer::row);
+        renderer.footer();
+        session.pageCursor = cursor.position < travels.size() ? cursor : null;
+    }
+
+    // Add a new travel
+    static void addTravel(TravelRepository travels, String[] commandArgs, Session session) {
+
+        // Check if any argument is empty or if the number of arguments is incorrect
+        if (Arrays.stream(commandArgs).anyMatch(String::isEmpty) || commandArgs.length != 6) {
+            session.out.println("wrong field count");
+            return;
+        }
+
+        // Validate ID format
+        String id = commandArgs[0];
+        if (!isThreeDigitNumeric(id) || travels.containsId(Integer.parseInt(id))) {
+            session.out.println("wrong id");
+            return;
+        }
+
+        // Format city name
+        String city = formatCityName(commandArgs[1]);
+
+        // Parse travel date
+        LocalDate travelDate = parseDate(commandArgs[2]);
+        if (travelDate == null) {
+            session.out.println("wrong date");
+            return;
+        }
+
+        // Validate day count and price input
+        String daysStr = commandArgs[3];
+        String priceStr = commandArgs[4].replace(',', '.');
+
+        if (!isNumeric(daysStr)) {
+            session.out.println("wrong day count");
+            return;
+        }
+        // A numeric day count that is not an int, e.g. 2.5 or one beyond int, has always been a wrong command
+        long days = parseInteger(daysStr);
+        if (days == NOT_AN_INT) {
+            session.out.println("wrong command");
+            return;
+        }
+        if (days <= 0) {
+            session.out.println("wrong day count");
+            return;
+        }
+
+        if (!isNumeric(priceStr) || Double.parseDouble(priceStr) < 0
+                || !storablePrice(Double.parseDouble(priceStr))) {
+            session.out.println("wrong price");
+            return;
+        }
+
+        // Convert vehicle type
+        VehicleType vehicle = VehicleType.of(commandArgs[5].toUpperCase());
+        if (vehicle == null) {
+            session.out.println("wrong vehicle");
+            return;
+        }
+
+// Create new travel object
+        Travel newTravel = new Travel(Integer.parseInt(id), city, travelDate,
+                (int) days, Double.parseDouble(priceStr), vehicle);
+
+        // Add the new travel at the index determined by its ID
+        travels.add(newTravel);
+
+        // Update file
+        persist(travels, "ADD" + DELIMITER + formatTravel(newTravel), session);
+        session.out.println("added");
+    }
+
+    // Check if a string is a three-digit numeric value
+    static boolean isThreeDigitNumeric(String str) {
+        long started = Stats.start();
+        boolean matches = str.length() == 3 && isDigit(str.charAt(0)) && isDigit(str.charAt(1)) && isDigit(str.charAt(2));
+        Stats.phase(Stats.Phase.VALIDATE, started);
+        return matches;
+    }
+
+    // Check if a string is numeric: an optional minus, digits, and optionally a dot and more digits
+    static boolean isNumeric(String str) {
+        long started = Stats.start();
+        int i = str.startsWith("-") ? 1 : 0;
+        int digits = skipDigits(str, i);
+        boolean matches = digits > i;
+        if (matches && digits < str.length()) {
+            matches = str.charAt(digits) == '.' && skipDigits(str, digits + 1) == str.length()
+                    && digits + 1 < str.length();
+        }
+        Stats.phase(Stats.Phase.VALIDATE, started);
+        return matches;
+    }
+
+    // ASCII digits only, like \d
+    static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // Index of the first non-digit at or after from
+    static int skipDigits(String str, int from) {
+        int i = from;
+        while (i < str.length() && isDigit(str.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    // Value of an int written as Integer.parseInt reads it (a sign, then digits of any script), or
+    // NOT_AN_INT, so that bad input is a status rather than an exception
+    static long parseInteger(String str) {
+        int length = str.length();
+        int i = length > 1 && (str.charAt(0) == '-' || str.charAt(0) == '+') ? 1 : 0;
+        if (i == length) {
+            return NOT_AN_INT;
+        }
+        long value = 0;
+        for (; i < length; i++) {
+            int digit = Character.digit(str.charAt(i), 10);
+            if (digit < 0) {
+                return NOT_AN_INT;
+            }
+            value = value * 10 + digit;
+            if (value > -(long) Integer.MIN_VALUE) {
+                return NOT_AN_INT;
+            }
+        }
+        if (str.charAt(0) == '-') {
+            return -value;
+        }
+        return value > Integer.MAX_VALUE ? NOT_AN_INT : value;
+    }
+
+    // Check if Double.parseDouble accepts a string: blanks around a signed NaN, Infinity, decimal with an
+    // optional exponent or hexadecimal with a binary exponent, and an optional f or d suffix
+    static boolean isDouble(String str) {
+        int end = str.length();
+        while (end > 0 && str.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int i = 0;
+        while (i < end && str.charAt(i) <= ' ') {
+            i++;
+        }
+        if (i < end && (str.charAt(i) == '-' || str.charAt(i) == '+')) {
+            i++;
+        }
+        if (str.startsWith("NaN", i) || str.startsWith("Infinity", i)) {
+            return i + (str.charAt(i) == 'N' ? 3 : 8) == end;
+        }
+        boolean hex = str.startsWith("0x", i) || str.startsWith("0X", i);
+        if (hex) {
+            i += 2;
+        }
+        int digits = 0;
+        boolean point = false;
+        for (; i < end; i++) {
+            char c = str.charAt(i);
+            if (c == '.' && !point) {
+                point = true;
+            } else if (isDigit(c) || hex && Character.digit(c, 16) >= 0 && c < 128) {
+                digits++;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        // Hexadecimal needs its exponent, for a decimal it is optional
+        char exponent = hex ? 'p' : 'e';
+        if (i < end && Character.toLowerCase(str.charAt(i)) == exponent) {
+            i++;
+            if (i < end && (str.charAt(i) == '-' || str.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentStart = i;
+            i = Math.min(skipDigits(str, i), end);
+            if (i == exponentStart) {
+                return false;
+            }
+        } else if (hex) {
+            return false;
+        }
+        if (i == end - 1) {
+            char suffix = str.charAt(i);
+            return suffix == 'f' || suffix == 'F' || suffix == 'd' || suffix == 'D';
+        }
+        return i == end;
+    }
+
+    // Date as DATE_FORMATTER reads dd/MM/yyyy, or null. Like it, a day past the end of the month moves back
+    // to its last day, and a year beyond four digits needs a plus sign
+    static LocalDate parseDate(String text) {
+        int length = text.length();
+        if (length < 10 || text.charAt(2) != '/' || text.charAt(5) != '/') {
+            return null;
+        }
+        int day = twoDigits(text, 0);
+        int month = twoDigits(text, 3);
+        if (day < 1 || day > 31 || month < 1 || month > 12) {
+            return null;
+        }
+        boolean signed = text.charAt(6) == '+';
+        int yearStart = signed ? 7 : 6;
+        int yearDigits = length - yearStart;
+        if (signed ? yearDigits <= 4 || yearDigits > 19 : yearDigits != 4) {
+            return null;
+        }
+        long year = 0;
+        for (int i = yearStart; i < length; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) {
+                return null;
+            }
+            year = Math.min(year * 10 + (c - '0'), Year.MAX_VALUE + 1L);
+        }
+        if (year < 1 || year > Year.MAX_VALUE) {
+            return null;
+        }
+        boolean leap = Year.isLeap(year);
+        return LocalDate.of((int) year, month, Math.min(day, Month.of(month).length(leap)));
+    }
+
+    // Value of two ASCII digits at from, or -1
+    private static int twoDigits(String text, int from) {
+        char tens = text.charAt(from);
+        char ones = text.charAt(from + 1);
+        return isDigit(tens) && isDigit(ones) ? (tens - '0') * 10 + (ones - '0') : -1;
+    }
+
+    // Format city name; repeated spellings are answered by the city dictionary
+    static String formatCityName(String cityName) {
+        long started = Stats.start();
+        String formatted = cityDictionary.format(cityName);
+        Stats.phase(Stats.Phase.FORMAT_CITY, started);
+        return formatted;
+    }
+
+    // Capitalize every word of a city name, joining the words with single spaces
+    static String normalizeCityName(String cityName) {
+        StringBuilder formattedCityName = new StringBuilder(cityName.length() + 1);
+
+        // Words end at whitespace and hyphens
+        int start = 0;
+        for (int i = 0; i <= cityName.length(); i++) {
+            if (i < cityName.length() && !isRegexSpace(cityName.charAt(i)) && cityName.charAt(i) != '-') {
+                continue;
+            }
+            if (i > start) {
+                appendCityWord(formattedCityName, cityName, start, i);
+                formattedCityName.append(' ');
+            }
+            start = i + 1;
+        }
+
+        return formattedCityName.toString().trim();
+    }
+
+    // Whether the default locale maps ASCII letters to ASCII letters; Turkish and Azerbaijani dot the i
+    static final boolean ASCII_CASE_MAPPING =
+            !Set.of("tr", "az").contains(Locale.getDefault().getLanguage());
+
+    // Append a word with its first letter in upper case and the rest in lower case. ASCII words are
+    // converted in place; others go through String case mapping, which can change their length
+    static void appendCityWord(StringBuilder out, String city, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (city.charAt(i) >= 0x80 || !ASCII_CASE_MAPPING) {
+                out.append(city.substring(from, from + 1).toUpperCase()).append(city.substring(from + 1, to).toLowerCase());
+                return;
+            }
+        }
+        char first = city.charAt(from);
+        out.append(first >= 'a' && first <= 'z' ? (char) (first - ('a' - 'A')) : first);
+        for (int i = from + 1; i < to; i++) {
+            char c = city.charAt(i);
+            out.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+        }
+    }
+
+    // Edit an existing travel
+    static void editTravel(TravelRepository travels, String[] args, Session session) {
+        // Validate number of arguments
+        if (args.length < 2 || args.length > 7) {
+            session.out.println("wrong field count");
+            return;
+        }
+
+        // Parse ID
+        long id = parseInteger(args[0]);
+        if (id == NOT_AN_INT) {
+            session.out.println("wrong id");
+            return;
+        }
+
+        // Find travel by ID
+        Travel originalTravel = travels.findById((int) id);
+
+        // If travel with specified ID not found
+        if (originalTravel == null) {
+            session.out.println("wrong id");
+            return;
+        }
+
+        // Create a copy of the original travel
+        Travel updatedTravel = new Travel(originalTravel.getId(), originalTravel.getCity(),
+                originalTravel.getDate(), originalTravel.getDays(),
+                originalTravel.getPrice(), originalTravel.getVehicle());
+
+        // Update travel fields based on user input
+        if (args.length >= 2 && !args[1].isEmpty()) {
+            updatedTravel.setCity(formatCityName(args[1]));
+        }
+        if (args.length >= 3 && !args[2].isEmpty()) {
+            LocalDate date = parseDate(args[2]);
+            if (date == null) {
+                session.out.println("wrong date");
+                return;
+            }
+            updatedTravel.setDate(date);
+        }
+        if (args.length >= 4 && !args[3].isEmpty()) {
+            long days = parseInteger(args[3]);
+            if (days == NOT_AN_INT) {
+                session.out.println("wrong day count");
+                return;
+            }
+            updatedTravel.setDays((int) days);
+        }
+        if (args.length >= 5 && !args[4].isEmpty()) {
+            String price = args[4].replace(',', '.');
+            if (!isDouble(price) || !storablePrice(Double.parseDouble(price))) {
+                session.out.println("wrong price");
+                return;
+            }
+            updatedTravel.setPrice(Double.parseDouble(price));
+        }
+        if (args.length >= 6 && !args[5].isEmpty()) {
+            VehicleType vehicle = VehicleType.of(args[5].toUpperCase());
+            if (vehicle == null) {
+                session.out.println("wrong vehicle");
+                return;
+            }
+            updatedTravel.setVehicle(vehicle);
+        }
+
+        // Replace original travel with the updated one
+        travels.replace(updatedTravel);
+
+        // Update file with the modified list of travels
+        persist(travels, "EDIT" + DELIMITER + formatTravel(updatedTravel), session);
+        session.out.println("changed");
+    }
+
+    // Delete a travel
+    static void deleteTravel(TravelRepository travels, String[] args, Session session) {
+        // Validate number of arguments
+        if (args.length != 1) {
+            session.out.println("wrong field count");
+            return;
+        }
+
+        // Parse ID
+        long id = parseInteger(args[0]);
+        if (id == NOT_AN_INT) {
+            session.out.println("wrong id");
+            return;
+        }
+
+        // Find travel by ID and remove it
+        boolean removed = travels.remove((int) id);
+        if (removed) {
+            persist(travels, "DEL" + DELIMITER + id, session);
+            session.out.println("deleted");
+        } else {
+            session.out.println("wrong id");
+        }
+    }
+
+    // Update file with list of travels: an atomic rewrite, after which the journal is obsolete
+    static void updateFile(TravelRepository travels, Session session) {
+        // Queued records would otherwise land in a journal for the new file and replay twice
+        if (groupCommitter != null) {
+            groupCommitter.drain();
+        }
+        try {
+            writeDataFile(travels);
+            // Deleted only once the new file is in place; a crash before this is harmless, as the journal
+            // header no longer matches the data file
+            Files.deleteIfExists(journalFile);
+            journalRecords = 0;
+        } catch (IOException e) {
+            session.out.println("Error updating file.");
+        }
+    }
+
+    // Print travels sorted by a key (date, price, city, days or id; date by default) from now on, or in file
+    // order again with "file". Only the view changes; the file keeps its order until compact
+    static void sortTravels(String[] args, TravelRepository travels, Session session) {
+        if (args.length > 1) {
+            session.out.println("wrong field count");
+            return;
+        }
+        String name = args.length == 0 ? "date" : args[0].trim();
+        if (name.equals("file")) {
+            session.printOrder = null;
+        } else {
+            SortKey key = SortKey.of(name.toUpperCase());
+            if (key == null) {
+                session.out.println("wrong key");
+                return;
+            }
+            travels.view(key);
+            session.printOrder = key;
+        }
+        session.out.println("sorted");
+    }
+
+    // Rewrite the data file in the current print order, which becomes the file order
+    static void compactTravels(String[] args, TravelRepository travels, Session session) {
+        if (args.length != 0) {
+            session.out.println("wrong field count");
+            return;
+        }
+        if (session.printOrder != null) {
+            travels.reorderBy(session.printOrder);
+        }
+        persist(travels, null, session);
+        session.out.println("compacted");
+    }
+
+    // Filter travels by maximum price or by a min;max price range
+    static void findTravels(String[] args, TravelRepository travels, Session session) {
+        // Checking the presence of arguments; limit=N and offset=N may follow the prices
+        int priceCount = pagingStart(args);
+        if (priceCount == 1 && isQuery(args[0])) {
+            findByQuery(args, travels, session);
+            return;
+        }
+        if (priceCount < 1 || priceCount > 2) {
+            session.out.println("wrong field count");
+            return;
+        }
+        // Replace comma with dot for correct parsing of floating-point numbers
+        String min = priceCount == 2 ? args[0].replace(',', '.') : "-Infinity";
+        String max = args[priceCount - 1].replace(',', '.');
+        if (!isDouble(min) || !isDouble(max)) {
+            session.out.println("wrong price");
+            return;
+        }
+        double minPrice = Double.parseDouble(min);
+        double maxPrice = Double.parseDouble(max);
+        if (priceCount < args.length) {
+            // A page is found by scanning in file order, which stops as soon as the page is full
+            List<Condition> conditions = new ArrayList<>();
+            conditions.add(Condition.range(Condition.Field.PRICE, minPrice, maxPrice, "price"));
+            startPaging(args, priceCount, conditions, null, travels, session);
+            return;
+        }
+        // Looking up the price range in the price index and streaming the matches to the table
+        TableRenderer renderer = new TableRenderer(session.out);
+        renderer.header();
+        travels.findByPrice(minPrice, maxPrice, renderer::row);
+        renderer.footer();
+    }
+
+    // A query names fields with comparisons, e.g. "city = rome and days >= 5", where a plain find has prices
+    static boolean isQuery(String arg) {
+        return arg.indexOf('=') >= 0 || arg.indexOf('<') >= 0 || arg.indexOf('>') >= 0 || arg.contains(" between ");
+    }
+
+    // Find travels matching every condition of a query, through the plan the repository picks
+    static void findByQuery(String[] args, TravelRepository travels, Session session) {
+        List<Condition> conditions;
+        try {
+            conditions = parseQuery(args[0]);
+        } catch (IllegalArgumentException e) {
+            session.out.println(e.getMessage());
+            return;
+        }
+        if (args.length > 1) {
+            // Pages scan in file order and stop early, so they do not need the plan
+            startPaging(args, 1, conditions, null, travels, session);
+            return;
+        }
+        TableRenderer renderer = new TableRenderer(session.out);
+        renderer.header();
+        travels.find(travels.plan(conditions), renderer::row);
+        renderer.footer();
+    }
+
+    // Count all travels, or those matching a query such as "vehicle = bus"
+    static void countTravels(String[] args, TravelRepository travels, Session session) {
+        if (args.length > 1) {
+            session.out.println("wrong field count");
+            return;
+        }
+        if (args.length == 0) {
+            session.out.println("count=" + travels.size());
+            return;
+        }
+        try {
+            session.out.println("count=" + travels.count(travels.plan(parseQuery(args[0]))));
+        } catch (IllegalArgumentException e) {
+            session.out.println(e.getMessage());
+        }
+    }
+
+    // Print the day with the most travels under way, over all days or from;to (dd/MM/yyyy, inclusive)
+    static void busiestDay(String[] args, TravelRepository travels, Session session) {
+        if (args.length != 0 && args.length != 2) {
+            session.out.println("wrong field count");
+            return;
+        }
+        long from = Long.MIN_VALUE;
+        long to = Long.MAX_VALUE;
+        if (args.length == 2) {
+            LocalDate first = parseDate(args[0].trim());
+            LocalDate last = parseDate(args[1].trim());
+            if (first == null || last == null) {
+                session.out.println("wrong date");
+                return;
+            }
+            from = first.toEpochDay();
+            to = last.toEpochDay();
+        }
+        long[] busiest = travels.busiestDay(from, to);
+        if (busiest == null) {
+            session.out.println("No travels found.");
+        } else {
+            session.out.println("busiest day=" + LocalDate.ofEpochDay(busiest[0]).format(DATE_FORMATTER)
+                    + " trips=" + busiest[1]);
+        }
+    }
+
+    // Autocomplete a city: stored cities starting with the prefix, ignoring case, with their trip counts
+    static void listCities(String[] args, TravelRepository travels, Session session) {
+        if (args.length > 1) {
+            session.out.println("wrong field count");
+            return;
+        }
+        Map<String, Integer> cities = travels.citiesStartingWith(args.length == 0 ? "" : args[0].trim());
+        if (cities.isEmpty()) {
+            session.out.println("No cities found.");
+            return;
+        }
+        cities.forEach((city, trips) -> session.out.println(city + " trips=" + trips));
+    }
+
+    // Print the plan chosen for a query, one step per line
+    static void explainQuery(String[] args, TravelRepository travels, Session session) {
+        if (args.length != 1) {
+            session.out.println("wrong field count");
+            return;
+        }
+        try {
+            travels.plan(parseQuery(args[0])).describe().forEach(session.out::println);
+        } catch (IllegalArgumentException e) {
+            session.out.println(e.getMessage());
+        }
+    }
+
+    // Parse "field op value [and field op value ...]" where op is =, <, <=, >, >= or "between value and",
+    // e.g. "city = new york and vehicle = plane and date between 01/01/2021 and 31/12/2021 and days >= 5".
+    // "active" matches travels under way on some day of the range, e.g. "active = 05/07/2021".
+    // Errors are thrown with the message to print
+    static List<Condition> parseQuery(String query) {
+        List<String> tokens = tokenizeQuery(query);
+        List<Condition> conditions = new ArrayList<>();
+        int i = 0;
+        while (true) {
+            Condition.Field field;
+            try {
+                field = Condition.Field.valueOf(queryToken(tokens, i++).toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("wrong query");
+            }
+            String operator = queryToken(tokens, i++);
+            String value = queryToken(tokens, i++);
+            String upper = null;
+            if (operator.equals("between")) {
+                if (!queryToken(tokens, i++).equals("and")) {
+                    throw new IllegalArgumentException("wrong query");
+                }
+                upper = queryToken(tokens, i++);
+            } else if (field == Condition.Field.CITY) {
+                // City names may contain spaces and run up to the next "and"
+                StringBuilder city = new StringBuilder(value);
+                while (i < tokens.size() && !tokens.get(i).equals("and")) {
+                    city.append(' ').append(tokens.get(i++));
+                }
+                value = city.toString();
+            }
+            conditions.add(Condition.parse(field, operator, value, upper));
+            if (i == tokens.size()) {
+                return conditions;
+            }
+            if (!tokens.get(i++).equals("and")) {
+                throw new IllegalArgumentException("wrong query");
+            }
+        }
+    }
+
+    static String queryToken(List<String> tokens, int index) {
+        if (index >= tokens.size()) {
+            throw new IllegalArgumentException("wrong query");
+        }
+        return tokens.get(index);
+    }
+
+    // Split a query into words and comparison operators; operators need no surrounding spaces
+    static List<String> tokenizeQuery(String query) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < query.length()) {
+            if (Character.isWhitespace(query.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            boolean operator = isOperatorChar(query.charAt(i));
+            while (i < query.length() && !Character.isWhitespace(query.charAt(i))
+                    && isOperatorChar(query.charAt(i)) == operator) {
+                i++;
+            }
+            tokens.add(query.substring(start, i));
+        }
+        return tokens;
+    }
+
+    static boolean isOperatorChar(char c) {
+        return c == '=' || c == '<' || c == '>';
+    }
+
+    // Export travels to a binary snapshot file
+    static void exportTravels(String[] args, TravelRepository travels, Session session) {
+        if (args.length > 1) {
+            session.out.println("wrong field count");
+            return;
+        }
+        Path path = Paths.get(args.length == 1 ? args[0] : EXPORT_FILE_NAME);
+        try {
+            if (BinarySnapshot.write(path, travels, 0)) {
+                session.out.println("exported");
+            } else {
+                session.out.println("Export failed, price cannot be stored in cents: "
+                        + formatTravel(BinarySnapshot.unstorable(travels)));
+            }
+        } catch (IOException e) {
+            session.out.println("Error updating file.");
+        }
+    }
+
+    // Replace travels with the contents of a binary snapshot file and rewrite the data file
+    static void importTravels(String[] args, TravelRepository travels, Session session) {
+        if (args.length > 1) {
+            session.out.println("wrong field count");
+            return;
+        }
+        Path path = Paths.get(args.length == 1 ? args[0] : EXPORT_FILE_NAME);
+        TravelRepository imported = new TravelRepository();
+        try {
+            if (!Files.exists(path)) {
+                session.out.println("Error reading file.");
+                return;
+            }
+            if (!BinarySnapshot.load(path, imported, -1, session.out)) {
+                session.out.println("Invalid data format: " + path);
+                return;
+            }
+            travels.clear();
+            for (Travel travel : imported) {
+                travels.append(travel);
+            }
+        } catch (IOException e) {
+            session.out.println("Error reading file.");
+            return;
+        } finally {
+            // Release the cities of the temporary rows, also after a load that stopped halfway
+            imported.clear();
+        }
+        persist(travels, null, session);
+        session.out.println("imported");
+    }
+
+    // Whether toCents can represent the price: finite, with its whole cents within a long
+    static boolean fitsInCents(double price) {
+        // The largest double not above Long.MAX_VALUE / 100
+        return Math.abs(price) <= 92233720368547744.0;
+    }
+
+    // Whether the store in use can hold the price: the columnar store keeps it in whole cents
+    static boolean storablePrice(double price) {
+        return !columnarStore || fitsInCents(price);
+    }
+
+    // Price in whole cents, rounded half to even exactly as DECIMAL_FORMAT rounds it for db.csv
+    static long toCents(double price) {
+        double scaled = price * 100;
+        double cents = Math.rint(scaled);
+        // Only values within rounding error of a half cent need the exact decimal expansion;
+        // from 1e7 up the product itself can be off by more than that margin
+        if (Math.abs(Math.abs(scaled - cents) - 0.5) < 1e-6 || Math.abs(price) >= 1e7) {
+            return new BigDecimal(price).setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+        }
+        return (long) cents;
+    }
+
+    // Calculate average price of travels
+    static void calculateAveragePrice(String[] args, TravelRepository travels, Session session) {
+        if (args.length > 1) {
+            session.out.println("wrong field count");
+            return;
+        }
+        if (travels.isEmpty()) {
+            session.out.println("No travels found.");
+            return;
+        }
+
+        // Average over all travels, read from the running aggregate
+        PriceStatistics statistics = travels.getStatistics();
+        if (args.length == 0) {
+            session.out.println("average=" + DECIMAL_FORMAT.get().format(statistics.getTotal().getAverage()));
+            return;
+        }
+
+        // Average over the travels matching a query
+        if (isQuery(args[0])) {
+            averageByQuery(args[0], travels, session);
+            return;
+        }
+
+        // Averages grouped by vehicle or by city
+        switch (args[0]) {
+            case "vehicle":
+                statistics.getByVehicle().forEach((group, aggregate) -> printAggregate(group, aggregate, session));
+                break;
+            case "city":
+                statistics.getByCity().forEach((group, aggregate) -> printAggregate(group, aggregate, session));
+                break;
+            default:
+                session.out.println("wrong group");
+        }
+    }
+
+    // A single vehicle condition is answered by its running aggregate; other queries aggregate the price
+    // column over the matching slots
+    static void averageByQuery(String query, TravelRepository travels, Session session) {
+        List<Condition> conditions;
+        try {
+            conditions = parseQuery(query);
+        } catch (IllegalArgumentException e) {
+            session.out.println(e.getMessage());
+            return;
+        }
+        PriceAggregate aggregate;
+        if (conditions.size() == 1 && conditions.get(0).getField() == Condition.Field.VEHICLE) {
+            aggregate = travels.getStatistics().getByVehicle().get(conditions.get(0).getVehicle());
+        } else {
+            aggregate = travels.aggregate(travels.plan(conditions));
+        }
+        if (aggregate == null || aggregate.getCount() == 0) {
+            session.out.println("No travels found.");
+            return;
+        }
+        printAggregate(query, aggregate, session);
+    }
+
+    // Print a grouped price aggregate
+    static void printAggregate(Object group, PriceAggregate aggregate, Session session) {
+        session.out.println(group + " average=" + DECIMAL_FORMAT.get().format(aggregate.getAverage()) +
+                " min=" + DECIMAL_FORMAT.get().format(aggregate.getMin()) +
+                " max=" + DECIMAL_FORMAT.get().format(aggregate.getMax()) +
+                " count=" + aggregate.getCount());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,63 @@
+package travel;
+
+import java.util.*;
+
+// Store keeping one Travel object per row; rows share the city dictionary's String for their city
+class ObjectTravelStore implements TravelStore {
+    private Travel[] rows = new Travel[16];
+
+    @Override
+    public void set(int slot, Travel travel) {
+        if (slot >= rows.length) {
+            rows = Arrays.copyOf(rows, Math.max(rows.length * 2, slot + 1));
+        }
+        // Acquire before releasing, so that a row keeping its city never drops the name
+        String city = Main.cityDictionary.name(Main.cityDictionary.acquire(travel.getCity()));
+        travel.setCity(city);
+        if (rows[slot] != null) {
+            Main.cityDictionary.release(rows[slot].getCity());
+        }
+        rows[slot] = travel;
+    }
+
+    @Override
+    public void remove(int slot) {
+        Main.cityDictionary.release(rows[slot].getCity());
+        rows[slot] = null;
+    }
+
+    @Override
+    public Travel get(int slot) {
+        return rows[slot];
+    }
+
+    @Override
+    public int getId(int slot) {
+        return rows[slot].getId();
+    }
+
+    @Override
+    public String getCity(int slot) {
+        return rows[slot].getCity();
+    }
+
+    @Override
+    public int getEpochDay(int slot) {
+        return (int) rows[slot].getDate().toEpochDay();
+    }
+
+    @Override
+    public int getDays(int slot) {
+        return rows[slot].getDays();
+    }
+
+    @Override
+    public double getPrice(int slot) {
+        return rows[slot].getPrice();
+    }
+
+    @Override
+    public VehicleType getVehicle(int slot) {
+        return rows[slot].getVehicle();
+    }
+}
@@ -0,0 +1,19 @@
+package travel;
+
+import java.util.*;
+
+// A paged print or find: its conditions, page size and the file position the next page starts at.
+// Rows added or removed before that position shift what the next page shows
+class PageCursor {
+    final List<Condition> conditions;
+    // Sorted view the pages follow, or null for file order
+    final SortKey order;
+    final int limit;
+    int position;
+
+    PageCursor(List<Condition> conditions, SortKey order, int limit) {
+        this.conditions = conditions;
+        this.order = order;
+        this.limit = limit;
+    }
+}
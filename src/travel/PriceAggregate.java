@@ -0,0 +1,132 @@
+package travel;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+// Running aggregate of prices: count and exact sum in O(1). The aggregates of PriceStatistics read min
+// and max from a price index over their own rows, so a removal never costs a search; one-off aggregates
+// only add, and fold each price into min and max
+class PriceAggregate {
+    private int count;
+    private BigDecimal sum = BigDecimal.ZERO;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    // Price order of the rows this aggregate covers, kept by its owner; null for one-off aggregates
+    private final SortedIndex prices;
+
+    // Non-finite prices can only come from a hand-edited file and are counted apart from the exact sum
+    private int nanCount;
+    private int positiveInfinityCount;
+    private int negativeInfinityCount;
+
+    // Set for one-off aggregates over many rows, where a BigDecimal per price would dominate the cost
+    private ExactSum bulkSum;
+
+    public PriceAggregate() {
+        this(null);
+    }
+
+    public PriceAggregate(SortedIndex prices) {
+        this.prices = prices;
+    }
+
+    public static PriceAggregate bulk() {
+        PriceAggregate aggregate = new PriceAggregate();
+        aggregate.bulkSum = new ExactSum();
+        return aggregate;
+    }
+
+    public void add(double price) {
+        count++;
+        if (prices == null) {
+            include(price);
+        }
+        if (Double.isNaN(price)) {
+            nanCount++;
+        } else if (price == Double.POSITIVE_INFINITY) {
+            positiveInfinityCount++;
+        } else if (price == Double.NEGATIVE_INFINITY) {
+            negativeInfinityCount++;
+        } else if (bulkSum != null) {
+            bulkSum.add(price);
+        } else {
+            sum = sum.add(new BigDecimal(price));
+        }
+    }
+
+    public void remove(double price) {
+        count--;
+        if (Double.isNaN(price)) {
+            nanCount--;
+        } else if (price == Double.POSITIVE_INFINITY) {
+            positiveInfinityCount--;
+        } else if (price == Double.NEGATIVE_INFINITY) {
+            negativeInfinityCount--;
+        } else if (bulkSum != null) {
+            bulkSum.add(-price);
+        } else {
+            sum = sum.subtract(new BigDecimal(price));
+        }
+    }
+
+    public void clear() {
+        count = 0;
+        sum = BigDecimal.ZERO;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+        nanCount = 0;
+        positiveInfinityCount = 0;
+        negativeInfinityCount = 0;
+    }
+
+    // Fold a price into min and max only
+    private void include(double price) {
+        if (price < min) {
+            min = price;
+        }
+        if (price > max) {
+            max = price;
+        }
+    }
+
+    // Price order of the covered rows, or null for a one-off aggregate
+    public SortedIndex getPrices() {
+        return prices;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getAverage() {
+        if (nanCount > 0 || (positiveInfinityCount > 0 && negativeInfinityCount > 0)) {
+            return Double.NaN;
+        }
+        if (positiveInfinityCount > 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (negativeInfinityCount > 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        BigDecimal total = bulkSum != null ? sum.add(bulkSum.get()) : sum;
+        return total.divide(BigDecimal.valueOf(count), MathContext.DECIMAL64).doubleValue();
+    }
+
+    // NaN sorts last in the index and, as in include, never counts as min or max
+    public double getMin() {
+        if (prices == null) {
+            return min;
+        }
+        double first = prices.size() > 0 ? prices.valueAt(0) : Double.NaN;
+        return Double.isNaN(first) ? Double.POSITIVE_INFINITY : first;
+    }
+
+    public double getMax() {
+        if (prices == null) {
+            return max;
+        }
+        int last = prices.lowerBound(Double.NaN) - 1;
+        return last >= 0 ? prices.valueAt(last) : Double.NEGATIVE_INFINITY;
+    }
+}
@@ -0,0 +1,99 @@
+package travel;
+
+import java.util.*;
+
+// Running price aggregates over all travels, per vehicle type and per city. Each group keeps a price index
+// over its own rows for its min and max; the total shares the repository's price index
+class PriceStatistics implements TravelIndex {
+    private final TravelStore store;
+    private final PriceAggregate total;
+    private final EnumMap<VehicleType, PriceAggregate> byVehicle = new EnumMap<>(VehicleType.class);
+    private final TreeMap<String, PriceAggregate> byCity = new TreeMap<>();
+
+    public PriceStatistics(TravelStore store, SortedIndex priceIndex) {
+        this.store = store;
+        total = new PriceAggregate(priceIndex);
+    }
+
+    @Override
+    public void added(int slot) {
+        double price = store.getPrice(slot);
+        total.add(price);
+        add(vehicleGroup(slot), slot, price);
+        add(cityGroup(slot), slot, price);
+    }
+
+    @Override
+    public void removed(int slot) {
+        double price = store.getPrice(slot);
+        total.remove(price);
+        remove(byVehicle, store.getVehicle(slot), slot, price);
+        remove(byCity, store.getCity(slot), slot, price);
+    }
+
+    // Sums are added row by row, and each group's price index is then built from its rows in one sort
+    @Override
+    public void rebuild(int[] slots, int count) {
+        total.clear();
+        byVehicle.clear();
+        byCity.clear();
+        PriceAggregate[] groups = new PriceAggregate[2 * count];
+        for (int i = 0; i < count; i++) {
+            int slot = slots[i];
+            double price = store.getPrice(slot);
+            total.add(price);
+            groups[2 * i] = vehicleGroup(slot);
+            groups[2 * i + 1] = cityGroup(slot);
+            groups[2 * i].add(price);
+            groups[2 * i + 1].add(price);
+        }
+        Map<PriceAggregate, int[]> members = new IdentityHashMap<>();
+        for (int i = 0; i < 2 * count; i++) {
+            // One entry past the group's rows counts those filled in so far
+            int[] rows = members.computeIfAbsent(groups[i], group -> new int[group.getCount() + 1]);
+            rows[rows[rows.length - 1]++] = slots[i / 2];
+        }
+        members.forEach((group, rows) -> group.getPrices().rebuild(rows, rows.length - 1));
+    }
+
+    public PriceAggregate getTotal() {
+        return total;
+    }
+
+    // Non-empty groups in enum order
+    public Map<VehicleType, PriceAggregate> getByVehicle() {
+        return byVehicle;
+    }
+
+    // Non-empty groups in alphabetical order
+    public Map<String, PriceAggregate> getByCity() {
+        return byCity;
+    }
+
+    private PriceAggregate vehicleGroup(int slot) {
+        return byVehicle.computeIfAbsent(store.getVehicle(slot), vehicle -> newGroup());
+    }
+
+    private PriceAggregate cityGroup(int slot) {
+        return byCity.computeIfAbsent(store.getCity(slot), city -> newGroup());
+    }
+
+    private PriceAggregate newGroup() {
+        return new PriceAggregate(new SortedIndex(store::getPrice));
+    }
+
+    private static void add(PriceAggregate group, int slot, double price) {
+        group.add(price);
+        group.getPrices().added(slot);
+    }
+
+    // Remove a row from a group, dropping the group once it is empty
+    private static <K> void remove(Map<K, PriceAggregate> groups, K key, int slot, double price) {
+        PriceAggregate aggregate = groups.get(key);
+        aggregate.remove(price);
+        aggregate.getPrices().removed(slot);
+        if (aggregate.getCount() == 0) {
+            groups.remove(key);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package travel;
+
+import java.util.*;
+
+// How a find query is answered: the first lookup drives, the other lookups are intersected with it as
+// bitsets of slots, and the filters are checked row by row. Without lookups every row is scanned
+class QueryPlan {
+    private final List<Condition> lookups;
+    private final int[] estimates;
+    private final List<Condition> filters;
+    private final int rows;
+
+    QueryPlan(List<Condition> lookups, int[] estimates, List<Condition> filters, int rows) {
+        this.lookups = lookups;
+        this.estimates = estimates;
+        this.filters = filters;
+        this.rows = rows;
+    }
+
+    public List<Condition> getLookups() {
+        return lookups;
+    }
+
+    public List<Condition> getFilters() {
+        return filters;
+    }
+
+    // Rows each lookup returns; exact, since every index counts its rows precisely
+    public int[] getEstimates() {
+        return estimates;
+    }
+
+    // One line per step with the rows each index lookup returns
+    public List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        if (lookups.isEmpty()) {
+            lines.add("scan rows=" + rows);
+        }
+        for (int i = 0; i < lookups.size(); i++) {
+            Condition lookup = lookups.get(i);
+            lines.add((i == 0 ? "lookup " : "intersect ") + lookup.getField().getIndex() +
+                    " (" + lookup + ") rows=" + estimates[i]);
+        }
+        for (Condition filter : filters) {
+            lines.add("filter (" + filter + ")");
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,29 @@
+package travel;
+
+import java.io.PrintStream;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+// State of one console or connection, passed to every command it runs: where its output goes, its open
+// batch, the order print uses, where its last page stopped and the group commit its last mutation waits for
+class Session {
+    final PrintStream out;
+
+    // Between begin and commit (or for a whole --batch file) mutations only change memory; their journal
+    // records are collected here and persisted once at commit. Null outside a batch
+    List<String> batchRecords = null;
+    boolean batchNeedsRewrite = false;
+
+    // Sorted view chosen with sort, or null for file order
+    SortKey printOrder = null;
+
+    // Where the last paged print or find stopped; null when there is no further page
+    PageCursor pageCursor = null;
+
+    // Group holding the last mutation, until the session has waited for it
+    CompletableFuture<Void> pendingCommit = null;
+
+    Session(PrintStream out) {
+        this.out = out;
+    }
+}
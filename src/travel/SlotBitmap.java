@@ -0,0 +1,212 @@
+package travel;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+// Compressed set of slots in the style of roaring bitmaps. Slots are split into chunks of 65536 by their
+// high 16 bits; a chunk holds its low bits as a sorted char array while it has at most 4096 entries and
+// as a 1024-word bitmap beyond that, so either form takes at most 8 KB. The cardinality is kept in O(1)
+class SlotBitmap {
+    private static final int CHUNK_BITS = 16;
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int WORDS_PER_CHUNK = (1 << CHUNK_BITS) / 64;
+
+    // Per chunk: a sorted char[] of low bits, a long[] bitmap, or null when empty
+    private Object[] chunks = new Object[1];
+    private int[] chunkSizes = new int[1];
+    private int cardinality;
+
+    public void add(int slot) {
+        int chunk = slot >>> CHUNK_BITS;
+        char low = (char) slot;
+        if (chunk >= chunks.length) {
+            chunks = Arrays.copyOf(chunks, Math.max(chunks.length * 2, chunk + 1));
+            chunkSizes = Arrays.copyOf(chunkSizes, chunks.length);
+        }
+        int size = chunkSizes[chunk];
+        if (chunks[chunk] instanceof long[]) {
+            long[] words = (long[]) chunks[chunk];
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) != 0) {
+                return;
+            }
+            words[low >>> 6] |= bit;
+        } else {
+            char[] values = chunks[chunk] != null ? (char[]) chunks[chunk] : new char[4];
+            int i = search(values, size, low);
+            if (i >= 0) {
+                return;
+            }
+            i = -i - 1;
+            if (size == ARRAY_LIMIT) {
+                // Full array: switch the chunk to a bitmap
+                long[] words = new long[WORDS_PER_CHUNK];
+                for (int j = 0; j < size; j++) {
+                    words[values[j] >>> 6] |= 1L << values[j];
+                }
+                words[low >>> 6] |= 1L << low;
+                chunks[chunk] = words;
+            } else {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, Math.min(size * 2, ARRAY_LIMIT));
+                }
+                System.arraycopy(values, i, values, i + 1, size - i);
+                values[i] = low;
+                chunks[chunk] = values;
+            }
+        }
+        chunkSizes[chunk] = size + 1;
+        cardinality++;
+    }
+
+    public void remove(int slot) {
+        int chunk = slot >>> CHUNK_BITS;
+        char low = (char) slot;
+        if (chunk >= chunks.length || chunks[chunk] == null) {
+            return;
+        }
+        int size = chunkSizes[chunk];
+        if (chunks[chunk] instanceof long[]) {
+            long[] words = (long[]) chunks[chunk];
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) == 0) {
+                return;
+            }
+            words[low >>> 6] &= ~bit;
+            if (size - 1 == ARRAY_LIMIT) {
+                chunks[chunk] = toArray(words, size - 1);
+            }
+        } else {
+            char[] values = (char[]) chunks[chunk];
+            int i = search(values, size, low);
+            if (i < 0) {
+                return;
+            }
+            System.arraycopy(values, i + 1, values, i, size - i - 1);
+            if (size == 1) {
+                chunks[chunk] = null;
+            }
+        }
+        chunkSizes[chunk] = size - 1;
+        cardinality--;
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean contains(int slot) {
+        int chunk = slot >>> CHUNK_BITS;
+        return chunk < chunks.length && chunks[chunk] != null && contains(chunks[chunk], chunkSizes[chunk], (char) slot);
+    }
+
+    // Slots in both bitmaps, without expanding array chunks
+    public SlotBitmap and(SlotBitmap other) {
+        SlotBitmap result = new SlotBitmap();
+        int chunkCount = Math.min(chunks.length, other.chunks.length);
+        result.chunks = new Object[Math.max(chunkCount, 1)];
+        result.chunkSizes = new int[result.chunks.length];
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            Object left = chunks[chunk];
+            Object right = other.chunks[chunk];
+            if (left == null || right == null) {
+                continue;
+            }
+            int size;
+            if (left instanceof long[] && right instanceof long[]) {
+                long[] words = new long[WORDS_PER_CHUNK];
+                size = 0;
+                for (int i = 0; i < WORDS_PER_CHUNK; i++) {
+                    words[i] = ((long[]) left)[i] & ((long[]) right)[i];
+                    size += Long.bitCount(words[i]);
+                }
+                result.chunks[chunk] = size > ARRAY_LIMIT ? words : toArray(words, size);
+            } else {
+                // Probe the smaller array against the other chunk
+                boolean leftArray = left instanceof char[]
+                        && (right instanceof long[] || chunkSizes[chunk] <= other.chunkSizes[chunk]);
+                char[] values = (char[]) (leftArray ? left : right);
+                int valueCount = leftArray ? chunkSizes[chunk] : other.chunkSizes[chunk];
+                Object probe = leftArray ? right : left;
+                int probeSize = leftArray ? other.chunkSizes[chunk] : chunkSizes[chunk];
+                char[] matches = new char[valueCount];
+                size = 0;
+                for (int i = 0; i < valueCount; i++) {
+                    if (contains(probe, probeSize, values[i])) {
+                        matches[size++] = values[i];
+                    }
+                }
+                result.chunks[chunk] = matches;
+            }
+            if (size == 0) {
+                result.chunks[chunk] = null;
+            }
+            result.chunkSizes[chunk] = size;
+            result.cardinality += size;
+        }
+        return result;
+    }
+
+    // Slots in either bitmap
+    public SlotBitmap or(SlotBitmap other) {
+        SlotBitmap result = new SlotBitmap();
+        forEach(result::add);
+        other.forEach(result::add);
+        return result;
+    }
+
+    // Pass every slot to the consumer in ascending order
+    public void forEach(IntConsumer consumer) {
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            int base = chunk << CHUNK_BITS;
+            if (chunks[chunk] instanceof long[]) {
+                long[] words = (long[]) chunks[chunk];
+                for (int i = 0; i < WORDS_PER_CHUNK; i++) {
+                    for (long word = words[i]; word != 0; word &= word - 1) {
+                        consumer.accept(base | i << 6 | Long.numberOfTrailingZeros(word));
+                    }
+                }
+            } else if (chunks[chunk] != null) {
+                char[] values = (char[]) chunks[chunk];
+                for (int i = 0; i < chunkSizes[chunk]; i++) {
+                    consumer.accept(base | values[i]);
+                }
+            }
+        }
+    }
+
+    private static boolean contains(Object chunk, int size, char low) {
+        if (chunk instanceof long[]) {
+            return (((long[]) chunk)[low >>> 6] & 1L << low) != 0;
+        }
+        return search((char[]) chunk, size, low) >= 0;
+    }
+
+    // Index of the value, or -(insertion point) - 1 when absent
+    private static int search(char[] values, int size, char low) {
+        int from = 0;
+        int to = size - 1;
+        while (from <= to) {
+            int mid = (from + to) >>> 1;
+            if (values[mid] < low) {
+                from = mid + 1;
+            } else if (values[mid] > low) {
+                to = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(from + 1);
+    }
+
+    private static char[] toArray(long[] words, int size) {
+        char[] values = new char[Math.max(size, 1)];
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            for (long word = words[i]; word != 0; word &= word - 1) {
+                values[count++] = (char) (i << 6 | Long.numberOfTrailingZeros(word));
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,45 @@
+package travel;
+
+// Keys travels can be sorted by for printing
+enum SortKey {
+    ID,
+    CITY,
+    DATE,
+    DAYS,
+    PRICE;
+
+    // Key with exactly this name, or null; unlike valueOf, an unknown name is not an exception
+    static SortKey of(String name) {
+        switch (name) {
+            case "ID":
+                return ID;
+            case "CITY":
+                return CITY;
+            case "DATE":
+                return DATE;
+            case "DAYS":
+                return DAYS;
+            case "PRICE":
+                return PRICE;
+            default:
+                return null;
+        }
+    }
+
+    // Compare the rows in two slots by this key
+    public int compare(TravelStore store, int a, int b) {
+        switch (this) {
+            case ID:
+                return Integer.compare(store.getId(a), store.getId(b));
+            case CITY:
+                return store.getCity(a).compareToIgnoreCase(store.getCity(b));
+            case DATE:
+                return Integer.compare(store.getEpochDay(a), store.getEpochDay(b));
+            case DAYS:
+                return Integer.compare(store.getDays(a), store.getDays(b));
+            default:
+                // Adding 0.0 folds -0.0 into 0.0
+                return Double.compare(store.getPrice(a) + 0.0, store.getPrice(b) + 0.0);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package travel;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.function.IntToDoubleFunction;
+
+// Value-ordered index over one numeric column (values, or dates as epoch days): the slots of the rows
+// ordered by value, ties ordered by slot, in a chunked list so that an update costs O(CHUNK + log N).
+// Values are read from the column, so searches cost O(log N) column reads
+class SortedIndex implements TravelIndex {
+    private final IntToDoubleFunction column;
+    private final ChunkedSlotList slots = new ChunkedSlotList();
+
+    public SortedIndex(IntToDoubleFunction column) {
+        this.column = column;
+    }
+
+    @Override
+    public void added(int slot) {
+        slots.insert(search(key(column.applyAsDouble(slot)), slot), slot);
+    }
+
+    @Override
+    public void removed(int slot) {
+        slots.remove(search(key(column.applyAsDouble(slot)), slot));
+    }
+
+    @Override
+    public void rebuild(int[] liveSlots, int count) {
+        double[] values = new double[count];
+        int[] sorted = Arrays.copyOf(liveSlots, count);
+        Arrays.sort(sorted);
+        for (int i = 0; i < count; i++) {
+            values[i] = key(column.applyAsDouble(sorted[i]));
+        }
+        sortByValue(values, sorted);
+        slots.rebuild(sorted, count);
+    }
+
+    // Bottom-up merge sort of the parallel arrays; stable, so ties stay ordered by slot
+    private static void sortByValue(double[] values, int[] slots) {
+        int size = values.length;
+        double[] valueBuffer = new double[size];
+        int[] slotBuffer = new int[size];
+        for (int width = 1; width < size; width *= 2) {
+            for (int low = 0; low < size; low += 2 * width) {
+                int middle = Math.min(low + width, size);
+                int high = Math.min(low + 2 * width, size);
+                int left = low;
+                int right = middle;
+                for (int i = low; i < high; i++) {
+                    if (right >= high || (left < middle && Double.compare(values[left], values[right]) <= 0)) {
+                        valueBuffer[i] = values[left];
+                        slotBuffer[i] = slots[left++];
+                    } else {
+                        valueBuffer[i] = values[right];
+                        slotBuffer[i] = slots[right++];
+                    }
+                }
+            }
+            System.arraycopy(valueBuffer, 0, values, 0, size);
+            System.arraycopy(slotBuffer, 0, slots, 0, size);
+        }
+    }
+
+    // First position with a value not below the bound
+    public int lowerBound(double value) {
+        double bound = key(value);
+        return slots.partition(slot -> Double.compare(key(column.applyAsDouble(slot)), bound) < 0);
+    }
+
+    // First position with a value above the bound
+    public int upperBound(double value) {
+        double bound = key(value);
+        return slots.partition(slot -> Double.compare(key(column.applyAsDouble(slot)), bound) <= 0);
+    }
+
+    public int slotAt(int position) {
+        return slots.slotAt(position);
+    }
+
+    // Value of the row at a position, as stored in its column
+    public double valueAt(int position) {
+        return column.applyAsDouble(slots.slotAt(position));
+    }
+
+    // Pass the slots at positions [from, to) to the consumer in value order
+    public void forEach(int from, int to, IntConsumer consumer) {
+        slots.forEach(from, to, consumer);
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    // Number of rows with a value in [low, high]
+    public int count(double low, double high) {
+        if (Double.isNaN(low) || Double.isNaN(high)) {
+            return 0;
+        }
+        return Math.max(upperBound(high) - lowerBound(low), 0);
+    }
+
+    // Slots of the rows with a value in [low, high]
+    public BitSet slots(double low, double high) {
+        BitSet result = new BitSet();
+        if (count(low, high) > 0) {
+            slots.forEach(lowerBound(low), upperBound(high), result::set);
+        }
+        return result;
+    }
+
+    // First position not ordered before (value, slot)
+    private int search(double value, int slot) {
+        return slots.partition(other -> {
+            int cmp = Double.compare(key(column.applyAsDouble(other)), value);
+            return cmp < 0 || (cmp == 0 && other < slot);
+        });
+    }
+
+    // Adding 0.0 folds -0.0 into 0.0 so that the order matches the <= comparison of values
+    private static double key(double value) {
+        return value + 0.0;
+    }
+}
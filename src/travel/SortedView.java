@@ -0,0 +1,97 @@
+package travel;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+// Sorted view for print: the live slots ordered by a key, ties in file order, kept up to date on every
+// mutation so that printing in key order costs no sort. The slots sit in a chunked list, so an update
+// costs O(CHUNK + log N) comparisons and shifts
+class SortedView implements TravelIndex {
+    private final TravelStore store;
+    private final SortKey key;
+    // File position of a slot, the tie-breaker
+    private final IntUnaryOperator position;
+    private final ChunkedSlotList slots = new ChunkedSlotList();
+
+    public SortedView(TravelStore store, SortKey key, IntUnaryOperator position) {
+        this.store = store;
+        this.key = key;
+        this.position = position;
+    }
+
+    @Override
+    public void added(int slot) {
+        slots.insert(search(slot), slot);
+    }
+
+    @Override
+    public void removed(int slot) {
+        slots.remove(search(slot));
+    }
+
+    // The live slots come in file order, so a stable sort by key leaves ties in file order
+    @Override
+    public void rebuild(int[] liveSlots, int count) {
+        int[] sorted = Arrays.copyOf(liveSlots, count);
+        sortByKey(sorted);
+        slots.rebuild(sorted, count);
+    }
+
+    // Bottom-up merge sort of the slots by key; stable, and on primitives, so no slot is boxed
+    private void sortByKey(int[] sorted) {
+        int size = sorted.length;
+        int[] source = sorted;
+        int[] target = new int[size];
+        for (int width = 1; width < size; width *= 2) {
+            for (int low = 0; low < size; low += 2 * width) {
+                int middle = Math.min(low + width, size);
+                int high = Math.min(low + 2 * width, size);
+                int left = low;
+                int right = middle;
+                for (int i = low; i < high; i++) {
+                    if (right >= high || (left < middle && key.compare(store, source[left], source[right]) <= 0)) {
+                        target[i] = source[left++];
+                    } else {
+                        target[i] = source[right++];
+                    }
+                }
+            }
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+        if (source != sorted) {
+            System.arraycopy(source, 0, sorted, 0, size);
+        }
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    public int slotAt(int index) {
+        return slots.slotAt(index);
+    }
+
+    // Slots in view order
+    public int[] toArray() {
+        return slots.toArray();
+    }
+
+    // Pass the slots from a position on to the visitor until it returns false; returns the position of
+    // the slot it returned false for, or size
+    public int visitFrom(int from, IntPredicate visitor) {
+        return slots.visitFrom(from, visitor);
+    }
+
+    // First index not ordered before the slot
+    private int search(int slot) {
+        return slots.partition(other -> compare(other, slot) < 0);
+    }
+
+    private int compare(int a, int b) {
+        int cmp = key.compare(store, a, b);
+        return cmp != 0 ? cmp : Integer.compare(position.applyAsInt(a), position.applyAsInt(b));
+    }
+}
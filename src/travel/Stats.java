@@ -0,0 +1,165 @@
+package travel;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+// Hot-path instrumentation: per-command and per-phase latency histograms plus bytes written, shown by the
+// stats command (--stats), and JFR events for a flight recording (--jfr). Probes pair start() with
+// command() or phase(); when both modes are off start() returns 0 after one static read and the
+// matching call returns at once
+class Stats {
+    enum Phase {
+        PARSE("parse"),
+        VALIDATE("validate"),
+        FORMAT_CITY("format city"),
+        FILE_READ("file read"),
+        FILE_WRITE("file write"),
+        RENDER("render");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+    }
+
+    private static boolean probing = false;
+    private static boolean histograms = false;
+    private static boolean events = false;
+
+    private static final LatencyHistogram[] commandLatencies = new LatencyHistogram[Command.values().length];
+    private static final LatencyHistogram[] phaseLatencies = new LatencyHistogram[Phase.values().length];
+    private static final java.util.concurrent.atomic.LongAdder fileBytes = new java.util.concurrent.atomic.LongAdder();
+    private static final java.util.concurrent.atomic.LongAdder outputBytes = new java.util.concurrent.atomic.LongAdder();
+    static {
+        Arrays.setAll(commandLatencies, i -> new LatencyHistogram());
+        Arrays.setAll(phaseLatencies, i -> new LatencyHistogram());
+    }
+
+    // Apply the --stats and --jfr launch options
+    public static void configure() {
+        histograms = Main.statsEnabled;
+        events = Main.jfrEnabled;
+        probing = histograms || events;
+    }
+
+    public static long start() {
+        return probing ? System.nanoTime() : 0;
+    }
+
+    public static void command(Command command, long started) {
+        if (started == 0) {
+            return;
+        }
+        long elapsed = System.nanoTime() - started;
+        if (histograms) {
+            commandLatencies[command.ordinal()].record(elapsed);
+        }
+        if (events) {
+            CommandEvent event = new CommandEvent();
+            event.command = command.name().toLowerCase();
+            event.elapsed = elapsed;
+            event.commit();
+        }
+    }
+
+    public static void phase(Phase phase, long started) {
+        if (started == 0) {
+            return;
+        }
+        long elapsed = System.nanoTime() - started;
+        if (histograms) {
+            phaseLatencies[phase.ordinal()].record(elapsed);
+        }
+        if (events) {
+            PhaseEvent event = new PhaseEvent();
+            event.phase = phase.label;
+            event.elapsed = elapsed;
+            event.commit();
+        }
+    }
+
+    // A file write of the given number of bytes finished
+    public static void bytesWritten(long bytes, long started) {
+        if (started != 0) {
+            fileBytes.add(bytes);
+            phase(Phase.FILE_WRITE, started);
+        }
+    }
+
+    // A whole file was written; its size is only looked up while probing
+    public static void fileWritten(Path file, long started) {
+        if (started != 0) {
+            try {
+                bytesWritten(Files.size(file), started);
+            } catch (IOException e) {
+                phase(Phase.FILE_WRITE, started);
+            }
+        }
+    }
+
+    public static void bytesRendered(long chars) {
+        if (probing) {
+            outputBytes.add(chars);
+        }
+    }
+
+    // The stats command: count and latency percentiles of every command and phase seen so far
+    public static void print(String[] args, PrintStream out) {
+        if (args.length != 0) {
+            out.println("wrong field count");
+            return;
+        }
+        if (!histograms) {
+            out.println("stats disabled");
+            return;
+        }
+        StringBuilder report = new StringBuilder(String.format(Locale.US, "%-12s%10s%12s%12s%12s%12s%n",
+                "Command", "Count", "p50 us", "p90 us", "p99 us", "Max us"));
+        for (Command command : Command.values()) {
+            appendRow(report, command.name().toLowerCase(), commandLatencies[command.ordinal()]);
+        }
+        for (Phase phase : Phase.values()) {
+            appendRow(report, phase.label, phaseLatencies[phase.ordinal()]);
+        }
+        report.append("bytes written=").append(fileBytes.sum())
+                .append(" rendered=").append(outputBytes.sum()).append(System.lineSeparator());
+        out.print(report);
+    }
+
+    private static void appendRow(StringBuilder report, String name, LatencyHistogram histogram) {
+        long count = histogram.count();
+        if (count > 0) {
+            report.append(String.format(Locale.US, "%-12s%10d%12.1f%12.1f%12.1f%12.1f%n", name, count,
+                    histogram.percentile(0.50) / 1e3, histogram.percentile(0.90) / 1e3,
+                    histogram.percentile(0.99) / 1e3, histogram.max() / 1e3));
+        }
+    }
+
+    @jdk.jfr.Name("travel.Command")
+    @jdk.jfr.Label("Command")
+    @jdk.jfr.Category("Travel Information System")
+    @jdk.jfr.StackTrace(false)
+    static class CommandEvent extends jdk.jfr.Event {
+        @jdk.jfr.Label("Command")
+        String command;
+
+        @jdk.jfr.Label("Elapsed")
+        @jdk.jfr.Timespan(jdk.jfr.Timespan.NANOSECONDS)
+        long elapsed;
+    }
+
+    @jdk.jfr.Name("travel.Phase")
+    @jdk.jfr.Label("Phase")
+    @jdk.jfr.Category("Travel Information System")
+    @jdk.jfr.StackTrace(false)
+    static class PhaseEvent extends jdk.jfr.Event {
+        @jdk.jfr.Label("Phase")
+        String phase;
+
+        @jdk.jfr.Label("Elapsed")
+        @jdk.jfr.Timespan(jdk.jfr.Timespan.NANOSECONDS)
+        long elapsed;
+    }
+}
@@ -0,0 +1,122 @@
+package travel;
+
+import java.io.*;
+import java.time.LocalDate;
+
+// Renders the print/find table into one buffer that goes to the output stream in large chunks.
+// Columns match the printf formats "%-4d%-21s%-11s%6d%10s%-9s" byte for byte, without per-row formatters
+class TableRenderer {
+    private static final String DIVIDER = "------------------------------------------------------------";
+    private static final String HEADER = String.format("%-4s%-21s%-11s%-6s%-10s%-9s",
+            "ID", "City", "Date", "Days", "Price", " Vehicle");
+    private static final String NEWLINE = System.lineSeparator();
+    private static final char[] SPACES = "                         ".toCharArray();
+    // Buffered characters are handed to the stream once they pass this size
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+
+    private final PrintStream out;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_THRESHOLD + 256);
+    // The render phase runs from construction to the footer, so it includes producing the rows
+    private final long started = Stats.start();
+
+    TableRenderer(PrintStream out) {
+        this.out = out;
+    }
+
+    void header() {
+        buffer.append(DIVIDER).append(NEWLINE)
+                .append(HEADER).append(NEWLINE)
+                .append(DIVIDER).append(NEWLINE);
+    }
+
+    void row(Travel travel) {
+        int start = buffer.length();
+        buffer.append(travel.getId());
+        padRight(start, 4);
+
+        start = buffer.length();
+        buffer.append(travel.getCity().trim());
+        padRight(start, 21);
+
+        start = buffer.length();
+        appendDate(travel.getDate());
+        padRight(start, 11);
+
+        start = buffer.length();
+        buffer.append(travel.getDays());
+        padLeft(start, 6);
+
+        start = buffer.length();
+        appendPrice(travel.getPrice());
+        padLeft(start, 10);
+
+        // Space before Vehicle
+        start = buffer.length();
+        buffer.append(' ').append(travel.getVehicle().toString().trim());
+        padRight(start, 9);
+
+        buffer.append(NEWLINE);
+        if (buffer.length() >= FLUSH_THRESHOLD) {
+            flush();
+        }
+    }
+
+    void footer() {
+        buffer.append(DIVIDER).append(NEWLINE);
+        flush();
+        Stats.phase(Stats.Phase.RENDER, started);
+    }
+
+    private void flush() {
+        out.append(buffer);
+        Stats.bytesRendered(buffer.length());
+        buffer.setLength(0);
+    }
+
+    // dd/MM/yyyy; years the pattern would print with a sign go through DATE_FORMATTER
+    private void appendDate(LocalDate date) {
+        int year = date.getYear();
+        if (year < 1 || year > 9999) {
+            buffer.append(date.format(Main.DATE_FORMATTER));
+            return;
+        }
+        appendDigits(date.getDayOfMonth(), 2);
+        buffer.append('/');
+        appendDigits(date.getMonthValue(), 2);
+        buffer.append('/');
+        appendDigits(year, 4);
+    }
+
+    // Two decimals rounded half to even like DECIMAL_FORMAT, which still handles negative
+    // zero, negative, huge and non-finite prices
+    private void appendPrice(double price) {
+        if (Double.doubleToRawLongBits(price) < 0 || !(price < 1e7)) {
+            buffer.append(Main.DECIMAL_FORMAT.get().format(price));
+            return;
+        }
+        long cents = Main.toCents(price);
+        buffer.append(cents / 100).append('.');
+        appendDigits((int) (cents % 100), 2);
+    }
+
+    private void appendDigits(int value, int width) {
+        for (int divisor = width == 4 ? 1000 : 10; divisor > 0; divisor /= 10) {
+            buffer.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    // Pad the column that starts at start with trailing spaces; longer values are never cut
+    private void padRight(int start, int width) {
+        int missing = width - (buffer.length() - start);
+        if (missing > 0) {
+            buffer.append(SPACES, 0, missing);
+        }
+    }
+
+    private void padLeft(int start, int width) {
+        int missing = width - (buffer.length() - start);
+        if (missing > 0) {
+            buffer.insert(start, SPACES, 0, missing);
+        }
+    }
+}
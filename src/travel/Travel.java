@@ -0,0 +1,90 @@
+package travel;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.Objects;
+
+// Class to represent a travel
+class Travel {
+    private int id;
+    private String city;
+    private LocalDate date;
+    private int days;
+    private double price;
+    private VehicleType vehicle;
+
+    public Travel(int id, String city, LocalDate date, int days, double price, VehicleType vehicle) {
+        this.id = id;
+        this.city = city;
+        this.date = date;
+        this.days = days;
+        this.price = price;
+        this.vehicle = vehicle;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public void setDays(int days) {
+        this.days = days;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public void setPrice(double price) {
+        this.price = price;
+    }
+
+    public VehicleType getVehicle() {
+        return vehicle;
+    }
+
+    public void setVehicle(VehicleType vehicle) {
+        this.vehicle = vehicle;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Travel travel = (Travel) o;
+        return id == travel.id &&
+                days == travel.days &&
+                Double.compare(travel.price, price) == 0 &&
+                city.equals(travel.city) &&
+                date.equals(travel.date) &&
+                vehicle == travel.vehicle;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, city, date, days, price, vehicle);
+    }
+}
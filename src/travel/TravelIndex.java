@@ -0,0 +1,13 @@
+package travel;
+
+// Secondary index kept up to date by TravelRepository; rows are read from the store by slot
+interface TravelIndex {
+    // Called after a row was stored in the slot
+    void added(int slot);
+
+    // Called while the row is still in the slot
+    void removed(int slot);
+
+    // Drop all entries and index the given live slots
+    void rebuild(int[] slots, int count);
+}
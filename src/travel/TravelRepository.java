@@ -0,0 +1,565 @@
+package travel;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+
+// Repository of travels in file order with a primary-key index on ID
+class TravelRepository implements Iterable<Travel> {
+    // Row storage; a row keeps its slot for as long as it lives
+    private final TravelStore store;
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    // Slots in file order; positions, inserts and removes take O(log N)
+    private final FileOrder order;
+
+    // Primary-key index: ID -> slot
+    private final IntIntMap idIndex = new IntIntMap();
+
+    // Secondary indexes notified of every added and removed row; bulk appends rebuild them lazily
+    private final List<TravelIndex> indexes = new ArrayList<>();
+    private boolean indexesStale = false;
+    private final SortedIndex priceIndex;
+    private final SortedIndex dateIndex;
+    private final IntervalIndex intervalIndex;
+    private final CityIndex cityIndex;
+    private final VehicleIndex vehicleIndex;
+    private final PriceStatistics statistics;
+
+    // A lookup joins the plan as a bitset intersection unless it returns this many times more rows
+    // than the driving lookup; checking the candidates row by row is cheaper then
+    private static final int INTERSECT_RATIO = 8;
+
+    // Matches are put in file order by sorting their positions unless they are more than one in this many
+    // rows; a walk over the whole file order is cheaper then than a tree walk for the position of each
+    private static final int WALK_RATIO = 32;
+
+    // Sorted views by key, built on first use and then maintained like the other indexes
+    private final Map<SortKey, SortedView> views = new EnumMap<>(SortKey.class);
+
+    // Undo actions of the open batch, oldest first; null outside a batch
+    private List<Runnable> undoLog;
+
+    // Storage engine chosen with --store=columnar, objects otherwise
+    public TravelRepository() {
+        this(Main.columnarStore ? new ColumnarTravelStore() : new ObjectTravelStore());
+    }
+
+    public TravelRepository(TravelStore store) {
+        this.store = store;
+        order = new FileOrder(store::getId);
+        priceIndex = new SortedIndex(store::getPrice);
+        dateIndex = new SortedIndex(store::getEpochDay);
+        intervalIndex = new IntervalIndex(store, dateIndex);
+        cityIndex = new CityIndex(store);
+        vehicleIndex = new VehicleIndex(store);
+        statistics = new PriceStatistics(store, priceIndex);
+        indexes.add(priceIndex);
+        indexes.add(dateIndex);
+        indexes.add(intervalIndex);
+        indexes.add(cityIndex);
+        indexes.add(vehicleIndex);
+        indexes.add(statistics);
+    }
+
+    public int size() {
+        return order.size();
+    }
+
+    public boolean isEmpty() {
+        return order.size() == 0;
+    }
+
+    public Travel get(int position) {
+        return store.get(order.slotAt(position));
+    }
+
+    public boolean containsId(int id) {
+        return idIndex.get(id) >= 0;
+    }
+
+    public Travel findById(int id) {
+        int slot = idIndex.get(id);
+        return slot >= 0 ? store.get(slot) : null;
+    }
+
+    // Append a travel at the end of the file order while loading; returns false for a duplicate ID
+    public boolean append(Travel travel) {
+        if (containsId(travel.getId())) {
+            return false;
+        }
+        indexesStale = true;
+        order.append(store(travel));
+        return true;
+    }
+
+    // Insert a travel before the first travel with a greater ID; returns false for a duplicate ID
+    public boolean add(Travel travel) {
+        if (containsId(travel.getId())) {
+            return false;
+        }
+        ensureIndexed();
+        insertAt(order.positionAbove(travel.getId()), travel);
+        if (undoLog != null) {
+            undoLog.add(() -> remove(travel.getId()));
+        }
+        return true;
+    }
+
+    // Replace the travel with the same ID, keeping its position
+    public boolean replace(Travel travel) {
+        int slot = idIndex.get(travel.getId());
+        if (slot < 0) {
+            return false;
+        }
+        ensureIndexed();
+        if (undoLog != null) {
+            Travel original = store.get(slot);
+            undoLog.add(() -> replace(original));
+        }
+        for (TravelIndex index : indexes) {
+            index.removed(slot);
+        }
+        store.set(slot, travel);
+        for (TravelIndex index : indexes) {
+            index.added(slot);
+        }
+        return true;
+    }
+
+    // Remove the travel with the given ID
+    public boolean remove(int id) {
+        int slot = idIndex.get(id);
+        if (slot < 0) {
+            return false;
+        }
+        ensureIndexed();
+        if (undoLog != null) {
+            int position = order.positionOf(slot);
+            Travel original = store.get(slot);
+            undoLog.add(() -> insertAt(position, original));
+        }
+        for (TravelIndex index : indexes) {
+            index.removed(slot);
+        }
+        order.remove(slot);
+        idIndex.remove(id);
+        store.remove(slot);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        return true;
+    }
+
+    // Reorder travels by date with a stable sort; slots and secondary indexes are unaffected
+    public void sortByDate() {
+        int[] slots = order.slots();
+        long[] keys = new long[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            keys[i] = (long) store.getEpochDay(slots[i]) << 32 | i;
+        }
+        reorder(slots, keys);
+    }
+
+    // Make the order of a sorted view the file order
+    public void reorderBy(SortKey key) {
+        setOrder(view(key).toArray());
+    }
+
+    // Reorder travels by ID
+    public void sortById() {
+        int[] slots = order.slots();
+        long[] keys = new long[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            keys[i] = (long) store.getId(slots[i]) << 32 | i;
+        }
+        reorder(slots, keys);
+    }
+
+    // Remove every travel
+    public void clear() {
+        if (undoLog != null) {
+            List<Travel> originals = stream().collect(java.util.stream.Collectors.toList());
+            undoLog.add(() -> {
+                clear();
+                originals.forEach(this::append);
+            });
+        }
+        for (int slot : order.slots()) {
+            store.remove(slot);
+        }
+        slotCount = 0;
+        freeCount = 0;
+        order.clear();
+        idIndex.clear();
+        indexesStale = true;
+    }
+
+    public PriceStatistics getStatistics() {
+        ensureIndexed();
+        return statistics;
+    }
+
+    // The view ordering travels by the key, built and registered as an index on first use
+    public SortedView view(SortKey key) {
+        ensureIndexed();
+        SortedView view = views.get(key);
+        if (view == null) {
+            view = new SortedView(store, key, order::positionOf);
+            view.rebuild(order.slots(), size());
+            views.put(key, view);
+            indexes.add(view);
+        }
+        return view;
+    }
+
+    // Travels in the order of a sorted view, or in file order for a null key
+    public Iterable<Travel> inOrder(SortKey key) {
+        if (key == null) {
+            return this;
+        }
+        int[] slots = view(key).toArray();
+        return () -> Arrays.stream(slots).mapToObj(store::get).iterator();
+    }
+
+    // Travels with a price in [minPrice, maxPrice], in file order
+    public void findByPrice(double minPrice, double maxPrice, Consumer<Travel> sink) {
+        ensureIndexed();
+        // Rows are materialized one at a time as they are handed to the sink
+        inFileOrder(priceIndex.slots(minPrice, maxPrice), sink);
+    }
+
+    // Choose how to answer a conjunction of conditions. The indexed condition with the fewest rows drives,
+    // city and vehicle bitmaps always intersect, other lookups are intersected as bitsets unless they are
+    // much larger than the driver, and the rest become per-row filters
+    public QueryPlan plan(List<Condition> conditions) {
+        ensureIndexed();
+        List<Condition> indexed = new ArrayList<>();
+        List<Condition> filters = new ArrayList<>();
+        for (Condition condition : conditions) {
+            (estimate(condition) >= 0 ? indexed : filters).add(condition);
+        }
+        indexed.sort(Comparator.comparingInt(this::estimate));
+
+        List<Condition> lookups = new ArrayList<>();
+        int[] estimates = new int[indexed.size()];
+        for (Condition condition : indexed) {
+            int estimate = estimate(condition);
+            if (lookups.isEmpty() || condition.getField().isBitmap()
+                    || estimate <= (long) INTERSECT_RATIO * estimates[0]) {
+                estimates[lookups.size()] = estimate;
+                lookups.add(condition);
+            } else {
+                filters.add(condition);
+            }
+        }
+        return new QueryPlan(lookups, Arrays.copyOf(estimates, lookups.size()), filters, size());
+    }
+
+    // Hand the travels matching a plan to the sink in file order
+    public void find(QueryPlan plan, Consumer<Travel> sink) {
+        ensureIndexed();
+        BitSet matched = new BitSet();
+        forEachMatch(plan, matched::set);
+        inFileOrder(matched, sink);
+    }
+
+    // Hand the travels in the slots to the sink in file order
+    private void inFileOrder(BitSet slots, Consumer<Travel> sink) {
+        int matches = slots.cardinality();
+        if ((long) matches * WALK_RATIO >= size()) {
+            for (int slot : order.slots()) {
+                if (slots.get(slot)) {
+                    sink.accept(store.get(slot));
+                }
+            }
+            return;
+        }
+
+        // Restore file order by sorting (position, slot) pairs of the matches
+        long[] keyed = new long[matches];
+        int i = 0;
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+            keyed[i++] = (long) order.positionOf(slot) << 32 | slot;
+        }
+        Arrays.sort(keyed);
+        for (long match : keyed) {
+            sink.accept(store.get((int) match));
+        }
+    }
+
+    // Number of travels matching a plan; a single lookup is counted by its index and bitmap lookups
+    // are intersected, without visiting rows, as long as there are no filters
+    public int count(QueryPlan plan) {
+        ensureIndexed();
+        if (plan.getFilters().isEmpty() && plan.getLookups().size() == 1) {
+            return plan.getEstimates()[0];
+        }
+        if (plan.getFilters().isEmpty() && plan.getLookups().stream().allMatch(c -> c.getField().isBitmap())
+                && !plan.getLookups().isEmpty()) {
+            return intersectBitmaps(plan.getLookups()).cardinality();
+        }
+        int[] count = new int[1];
+        forEachMatch(plan, slot -> count[0]++);
+        return count[0];
+    }
+
+    // Price aggregate of the travels matching a plan, read from the price column
+    public PriceAggregate aggregate(QueryPlan plan) {
+        ensureIndexed();
+        PriceAggregate aggregate = PriceAggregate.bulk();
+        forEachMatch(plan, slot -> aggregate.add(store.getPrice(slot)));
+        return aggregate;
+    }
+
+    // Pass the slot of every travel matching a plan to the consumer
+    private void forEachMatch(QueryPlan plan, IntConsumer consumer) {
+        List<Condition> filters = plan.getFilters();
+        IntConsumer filtered = filters.isEmpty() ? consumer : slot -> {
+            if (matchesAll(slot, filters)) {
+                consumer.accept(slot);
+            }
+        };
+        if (plan.getLookups().isEmpty()) {
+            for (int slot : order.slots()) {
+                filtered.accept(slot);
+            }
+            return;
+        }
+
+        // Bitmaps intersect among themselves in compressed form; other lookups are bitsets of slots
+        SlotBitmap bitmaps = intersectBitmaps(plan.getLookups());
+        BitSet candidates = null;
+        for (Condition lookup : plan.getLookups()) {
+            if (!lookup.getField().isBitmap()) {
+                BitSet slots = lookup(lookup);
+                if (candidates == null) {
+                    candidates = slots;
+                } else {
+                    candidates.and(slots);
+                }
+            }
+        }
+        if (candidates == null) {
+            bitmaps.forEach(filtered);
+            return;
+        }
+        for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+            if (bitmaps == null || bitmaps.contains(slot)) {
+                filtered.accept(slot);
+            }
+        }
+    }
+
+    // Intersection of the city and vehicle lookups, or null when there are none
+    private SlotBitmap intersectBitmaps(List<Condition> lookups) {
+        SlotBitmap result = null;
+        for (Condition lookup : lookups) {
+            if (lookup.getField().isBitmap()) {
+                result = result == null ? bitmap(lookup) : result.and(bitmap(lookup));
+            }
+        }
+        return result;
+    }
+
+    private SlotBitmap bitmap(Condition condition) {
+        return condition.getField() == Condition.Field.CITY
+                ? cityIndex.slots(condition.getCity()) : vehicleIndex.slots(condition.getVehicle());
+    }
+
+    // Rows the index for the condition returns, or -1 when no index covers it
+    private int estimate(Condition condition) {
+        switch (condition.getField()) {
+            case ID:
+                return condition.getLow() == condition.getHigh() ? lookup(condition).cardinality() : -1;
+            case CITY:
+            case VEHICLE:
+                return bitmap(condition).cardinality();
+            case DATE:
+                return dateIndex.count(condition.getLow(), condition.getHigh());
+            case PRICE:
+                return priceIndex.count(condition.getLow(), condition.getHigh());
+            case ACTIVE:
+                return intervalIndex.count(condition.getLow(), condition.getHigh());
+            default:
+                return -1;
+        }
+    }
+
+    // Slots the sorted, interval or primary-key index for the condition returns
+    private BitSet lookup(Condition condition) {
+        switch (condition.getField()) {
+            case ID:
+                BitSet result = new BitSet();
+                int id = (int) condition.getLow();
+                int slot = id == condition.getLow() ? idIndex.get(id) : -1;
+                if (slot >= 0) {
+                    result.set(slot);
+                }
+                return result;
+            case DATE:
+                return dateIndex.slots(condition.getLow(), condition.getHigh());
+            case ACTIVE:
+                return intervalIndex.slots(condition.getLow(), condition.getHigh());
+            default:
+                return priceIndex.slots(condition.getLow(), condition.getHigh());
+        }
+    }
+
+    private boolean matchesAll(int slot, List<Condition> conditions) {
+        for (Condition condition : conditions) {
+            if (!condition.matches(store, slot)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Hand travels matching all conditions to the sink in file order, or in the order of the view for
+    // the key, starting at a position in that order, skipping the first skip matches and stopping after
+    // limit; returns the position of the next match, or size when none is left
+    public int scan(SortKey key, int start, List<Condition> conditions, int skip, int limit, Consumer<Travel> sink) {
+        if (conditions.isEmpty()) {
+            // Every row matches, so the skipped rows need not be visited
+            start = (int) Math.min((long) start + skip, size());
+            skip = 0;
+        }
+        // Matches still to skip, and matches handed to the sink
+        int[] counts = {skip, 0};
+        IntPredicate visitor = slot -> {
+            if (!matchesAll(slot, conditions)) {
+                return true;
+            }
+            if (counts[0] > 0) {
+                counts[0]--;
+            } else if (counts[1] == limit) {
+                return false;
+            } else {
+                sink.accept(store.get(slot));
+                counts[1]++;
+            }
+            return true;
+        };
+        return key == null ? order.visitFrom(start, visitor) : view(key).visitFrom(start, visitor);
+    }
+
+    // Rows are materialized as Travel objects only as they are iterated
+    public Stream<Travel> stream() {
+        return Arrays.stream(order.slots()).mapToObj(store::get);
+    }
+
+    @Override
+    public Iterator<Travel> iterator() {
+        return stream().iterator();
+    }
+
+    // Earliest day in [low, high] with the most travels under way, and their number; null if there are none
+    public long[] busiestDay(long low, long high) {
+        ensureIndexed();
+        return intervalIndex.busiest(low, high);
+    }
+
+    public Map<String, Integer> citiesStartingWith(String prefix) {
+        ensureIndexed();
+        return cityIndex.startingWith(prefix);
+    }
+
+    // Finish lazy index work up front, so that concurrent readers only read
+    public void prepareForReads() {
+        getStatistics();
+        order.link();
+    }
+
+    public void beginBatch() {
+        undoLog = new ArrayList<>();
+    }
+
+    public void commitBatch() {
+        undoLog = null;
+    }
+
+    // Undo every change of the open batch, newest first
+    public void rollbackBatch() {
+        List<Runnable> log = undoLog;
+        undoLog = null;
+        for (int i = log.size() - 1; i >= 0; i--) {
+            log.get(i).run();
+        }
+    }
+
+    // Apply an order given as (sort key << 32 | position) pairs over the slots in file order; ties keep
+    // their relative order
+    private void reorder(int[] slots, long[] keys) {
+        Arrays.sort(keys);
+        int[] sorted = new int[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            sorted[i] = slots[(int) keys[i]];
+        }
+        setOrder(sorted);
+    }
+
+    // Make a permutation of the live slots the file order
+    private void setOrder(int[] sorted) {
+        if (undoLog != null) {
+            // Remember the order by ID, since undoing later changes may move rows to other slots
+            int[] originalIds = order.slots().clone();
+            for (int i = 0; i < originalIds.length; i++) {
+                originalIds[i] = store.getId(originalIds[i]);
+            }
+            undoLog.add(() -> {
+                int[] slots = new int[originalIds.length];
+                for (int i = 0; i < slots.length; i++) {
+                    slots[i] = idIndex.get(originalIds[i]);
+                }
+                order.rebuild(slots, slots.length);
+                rebuildViews();
+            });
+        }
+        order.rebuild(sorted, sorted.length);
+        rebuildViews();
+    }
+
+    // Views break ties by file position, so a new file order reorders their ties
+    private void rebuildViews() {
+        if (!indexesStale) {
+            int[] slots = order.slots();
+            for (SortedView view : views.values()) {
+                view.rebuild(slots, slots.length);
+            }
+        }
+    }
+
+    private void insertAt(int position, Travel travel) {
+        int slot = store(travel);
+        order.insert(position, slot);
+        if (!indexesStale) {
+            for (TravelIndex index : indexes) {
+                index.added(slot);
+            }
+        }
+    }
+
+    // Put the travel in a free slot and index its ID; the caller places the slot in the file order
+    private int store(Travel travel) {
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : slotCount++;
+        store.set(slot, travel);
+        idIndex.put(travel.getId(), slot);
+        return slot;
+    }
+
+    // Rebuild secondary indexes in one pass after bulk appends
+    private void ensureIndexed() {
+        if (indexesStale) {
+            int[] slots = order.slots();
+            for (TravelIndex index : indexes) {
+                index.rebuild(slots, slots.length);
+            }
+            indexesStale = false;
+        }
+    }
+}
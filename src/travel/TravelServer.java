@@ -0,0 +1,147 @@
+package travel;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Line-protocol server on localhost. A connection sends the console commands and gets their output back,
+// each response followed by an empty line. Every connection is a session of its own, served on its own
+// thread: readers share the read lock and writers take the write lock. Commands between begin and commit
+// are queued by their connection (each answered with "queued") and run together under the write lock at
+// commit, answered with their output and "committed"; so no lock is held across round trips, and abort or a
+// disconnect just drops them
+class TravelServer {
+    private final TravelRepository travels;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ExecutorService connections = Executors.newCachedThreadPool();
+    private ServerSocket serverSocket;
+
+    public TravelServer(TravelRepository travels) {
+        this.travels = travels;
+    }
+
+    // Bind to the port, 0 for any free one, and accept connections on a background thread; returns the port
+    public int start(int port) throws IOException {
+        serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        travels.prepareForReads();
+        new Thread(this::acceptConnections, "travel-server").start();
+        return serverSocket.getLocalPort();
+    }
+
+    public void stop() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                // Closed by stop
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        // Commands queued since begin; null outside a batch
+        List<String> batch = null;
+        try (Socket connection = socket;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+             PrintStream out = new PrintStream(
+                     new BufferedOutputStream(connection.getOutputStream(), 1 << 16), false, StandardCharsets.UTF_8)) {
+            Session session = new Session(out);
+            String line;
+            while ((line = in.readLine()) != null) {
+                String input = line.trim().toLowerCase();
+                Command command = Main.commandOf(input);
+                if (command == Command.EXIT) {
+                    break;
+                }
+                if (batch != null) {
+                    if (command == Command.COMMIT) {
+                        commit(batch, session);
+                        batch = null;
+                    } else if (command == Command.ABORT) {
+                        batch = null;
+                        out.println("aborted");
+                    } else if (command == Command.BEGIN) {
+                        out.println("batch already started");
+                    } else {
+                        batch.add(input);
+                        out.println("queued");
+                    }
+                } else if (command == Command.BEGIN) {
+                    batch = new ArrayList<>();
+                    out.println("started");
+                } else if (command == Command.COMMIT || command == Command.ABORT) {
+                    out.println("no batch");
+                } else if (isWrite(command)) {
+                    lock.writeLock().lock();
+                    try {
+                        Main.execute(input, travels, session);
+                        travels.prepareForReads();
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                } else {
+                    lock.readLock().lock();
+                    try {
+                        Main.execute(input, travels, session);
+                    } finally {
+                        lock.readLock().unlock();
+                    }
+                }
+                // Writes are acknowledged once durable, after the lock is released so their group can fill
+                Main.awaitCommit(session);
+                out.println();
+                out.flush();
+            }
+        } catch (IOException e) {
+            // The client went away; an open batch was only queued and is dropped with the connection
+        }
+    }
+
+    // Run a queued batch as one batch under the write lock: all of its mutations persist together
+    private void commit(List<String> batch, Session session) {
+        lock.writeLock().lock();
+        try {
+            Main.beginBatch(travels, session);
+            for (String input : batch) {
+                Main.execute(input, travels, session);
+            }
+            Main.commitBatch(travels, session);
+            travels.prepareForReads();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        session.out.println("committed");
+    }
+
+    // Commands that change the repository or write files
+    private static boolean isWrite(Command command) {
+        if (command == null) {
+            return false;
+        }
+        switch (command) {
+            case ADD:
+            case DEL:
+            case EDIT:
+            case SORT:
+            case COMPACT:
+            case IMPORT:
+            case EXPORT:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package travel;
+
+// Slot-addressed row storage behind TravelRepository; fields are read without materializing a Travel
+interface TravelStore {
+    // Store a row in a slot, growing the store as needed
+    void set(int slot, Travel travel);
+
+    void remove(int slot);
+
+    // Materialize the row in a slot
+    Travel get(int slot);
+
+    int getId(int slot);
+
+    String getCity(int slot);
+
+    int getEpochDay(int slot);
+
+    int getDays(int slot);
+
+    double getPrice(int slot);
+
+    VehicleType getVehicle(int slot);
+}
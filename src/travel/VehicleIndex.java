@@ -0,0 +1,42 @@
+package travel;
+
+import java.util.*;
+
+// One compressed bitmap of slots per vehicle type
+class VehicleIndex implements TravelIndex {
+    private final TravelStore store;
+    private final EnumMap<VehicleType, SlotBitmap> slotsByVehicle = new EnumMap<>(VehicleType.class);
+
+    public VehicleIndex(TravelStore store) {
+        this.store = store;
+        for (VehicleType vehicle : VehicleType.values()) {
+            slotsByVehicle.put(vehicle, new SlotBitmap());
+        }
+    }
+
+    @Override
+    public void added(int slot) {
+        slotsByVehicle.get(store.getVehicle(slot)).add(slot);
+    }
+
+    @Override
+    public void removed(int slot) {
+        slotsByVehicle.get(store.getVehicle(slot)).remove(slot);
+    }
+
+    @Override
+    public void rebuild(int[] slots, int count) {
+        for (VehicleType vehicle : VehicleType.values()) {
+            slotsByVehicle.put(vehicle, new SlotBitmap());
+        }
+        int[] sorted = Arrays.copyOf(slots, count);
+        Arrays.sort(sorted);
+        for (int slot : sorted) {
+            added(slot);
+        }
+    }
+
+    public SlotBitmap slots(VehicleType vehicle) {
+        return slotsByVehicle.get(vehicle);
+    }
+}
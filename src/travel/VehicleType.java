@@ -0,0 +1,25 @@
+package travel;
+
+// Enum for vehicle types
+enum VehicleType {
+    PLANE,
+    BUS,
+    TRAIN,
+    BOAT;
+
+    // Vehicle with exactly this name, or null; unlike valueOf, an unknown name is not an exception
+    static VehicleType of(String name) {
+        switch (name) {
+            case "PLANE":
+                return PLANE;
+            case "BUS":
+                return BUS;
+            case "TRAIN":
+                return TRAIN;
+            case "BOAT":
+                return BOAT;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package travel;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The cities command over the city index, and the city dictionary dropping names once no row uses them
+class CityDictionaryTest {
+    @RegisterExtension
+    final TemporaryDataFile files = new TemporaryDataFile();
+
+    private TravelRepository travels;
+
+    @BeforeEach
+    void loadTravels() throws IOException {
+        Files.write(Main.dataFile, List.of(
+                "101;Riga;10/03/2022;4;30.5;BUS",
+                "102;Rome;01/02/2022;7;12.0;TRAIN",
+                "103;Oslo;10/03/2022;4;30.5;PLANE",
+                "104;Riga;15/01/2023;2;99.9;BUS"));
+        travels = Main.readDataFromFile();
+    }
+
+    @Test
+    void citiesListsPrefixWithoutCase() {
+        assertEquals(List.of("Riga trips=2"), cities("cities ri"));
+        assertEquals(List.of("Rome trips=1"), cities("cities RO"));
+        assertEquals(List.of("Riga trips=2", "Rome trips=1"), cities("cities r"));
+        assertEquals(List.of("No cities found."), cities("cities kyiv"));
+        assertEquals(List.of("wrong field count"), cities("cities r;o"));
+    }
+
+    @Test
+    void emptyPrefixListsEveryCity() {
+        assertEquals(List.of("Oslo trips=1", "Riga trips=2", "Rome trips=1"), cities("cities"));
+        assertEquals(List.of("Oslo trips=1", "Riga trips=2", "Rome trips=1"), cities("cities  "));
+    }
+
+    @Test
+    void deletedCityIsNoLongerListed() {
+        Main.execute("del 103", travels, files.session());
+        assertEquals(List.of("No cities found."), cities("cities os"));
+        Main.execute("del 101", travels, files.session());
+        assertEquals(List.of("Riga trips=1", "Rome trips=1"), cities("cities"));
+        Main.execute("edit 104;oslo;;;;", travels, files.session());
+        assertEquals(List.of("Oslo trips=1", "Rome trips=1"), cities("cities"));
+    }
+
+    @Test
+    void objectStoreReleasesNames() {
+        checkReleases(new TravelRepository(new ObjectTravelStore()));
+    }
+
+    @Test
+    void columnarStoreReleasesNames() {
+        checkReleases(new TravelRepository(new ColumnarTravelStore()));
+    }
+
+    @Test
+    void importReleasesTemporaryRows() {
+        // A city no other test uses, whose rows only this repository holds
+        Main.execute("add 105;Qaanaaq;01/06/2022;5;80.0;plane", travels, files.session());
+        String snapshot = files.directory().resolve("travels.bin").toString();
+        Main.execute("export " + snapshot, travels, files.session());
+        int names = Main.cityDictionary.size();
+        Main.execute("del 105", travels, files.session());
+        assertEquals(names - 1, Main.cityDictionary.size());
+        Main.execute("import " + snapshot, travels, files.session());
+        assertEquals(names, Main.cityDictionary.size());
+        Main.execute("del 105", travels, files.session());
+        assertEquals(names - 1, Main.cityDictionary.size());
+    }
+
+    // Names added, kept and replaced by rows are dropped once the last row using them goes
+    private static void checkReleases(TravelRepository repository) {
+        int names = Main.cityDictionary.size();
+        for (int id = 1; id <= 3; id++) {
+            repository.append(travel(id, "Zzyzx"));
+        }
+        assertEquals(names + 1, Main.cityDictionary.size());
+        repository.replace(travel(1, "Zzyzx"));
+        repository.replace(travel(2, "Yuma"));
+        assertEquals(names + 2, Main.cityDictionary.size());
+        assertEquals("Yuma", repository.findById(2).getCity());
+
+        repository.remove(1);
+        repository.remove(3);
+        assertEquals(names + 1, Main.cityDictionary.size());
+        assertEquals("Yuma", repository.findById(2).getCity());
+        repository.remove(2);
+        assertEquals(names, Main.cityDictionary.size());
+
+        // A dropped ID is reused by the next new name
+        repository.append(travel(4, "Tulsa"));
+        assertEquals("Tulsa", repository.findById(4).getCity());
+        repository.clear();
+        assertEquals(names, Main.cityDictionary.size());
+    }
+
+    private static Travel travel(int id, String city) {
+        return new Travel(id, city, LocalDate.of(2022, 1, id), 3, 10.0, VehicleType.BUS);
+    }
+
+    private List<String> cities(String command) {
+        files.clearOutput();
+        Main.execute(command, travels, files.session());
+        List<String> lines = Arrays.asList(files.output().trim().split("\\R"));
+        files.clearOutput();
+        return lines;
+    }
+}
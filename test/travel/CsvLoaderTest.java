@@ -0,0 +1,130 @@
+package travel;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The memory-mapped loader against the Scanner loader on malformed input, and on a fork-join pool against
+// itself on one thread: the same travels in the same order, and the same reports of malformed lines and
+// duplicate IDs in the same order
+class CsvLoaderTest {
+    // Every generated line has this many bytes with its newline, so that chunk boundaries fall on known lines
+    private static final int LINE_LENGTH = 48;
+    private static final int LINES = 2000;
+    // Most chunks the loader cuts a file into: eight threads with four chunks each
+    private static final int CHUNKS = 8 * 4;
+
+    @RegisterExtension
+    final TemporaryDataFile files = new TemporaryDataFile();
+
+    // Random files of valid and malformed lines, with LF or CRLF endings and with or without a final newline
+    @Test
+    void mappedLoaderReadsMalformedInputLikeScanner() throws IOException {
+        String[] variants = {
+                "101;Riga;01/01/2022;3;10.5;BUS", "102;Oslo;29/02/2024;7;0,25;PLANE", "103;New York;31/12/2021;1;99;BOAT",
+                "101;Rome;02/02/2022;2;20.5;TRAIN", "", " ", ";;;;;", "104;Riga;01/01/2022;3;10.5;BUS;",
+                "105;Riga;01/01/2022;3;10.5;BUS;extra", "106;Riga;01/01/2022;3;10.5", "107;Riga;01/01/2022;3;BUS",
+                "108;Riga;32/01/2022;3;10.5;BUS", "109;Riga;1/1/2022;3;10.5;BUS", "110;Riga;31/04/2022;3;10.5;BUS",
+                "111;Riga;01/01/2022;3;10.5;CAR", "112;Riga;01/01/2022;3;10.5;bus", "113;Riga;01/01/2022;x;10.5;BUS",
+                "114;Riga;01/01/2022;3;1e3;BUS", "115;Riga;01/01/2022;3;NaN;BUS", "x;Riga;01/01/2022;3;10.5;BUS",
+                "99999999999;Riga;01/01/2022;3;10.5;BUS", "-116;Riga;01/01/2022;-3;-10.5;TRAIN"};
+        Random random = new Random(47);
+        Path file = files.directory().resolve("malformed.csv");
+        for (int round = 0; round < 300; round++) {
+            StringBuilder content = new StringBuilder();
+            for (int i = random.nextInt(12); i >= 0; i--) {
+                content.append(variants[random.nextInt(variants.length)]).append(random.nextBoolean() ? "\n" : "\r\n");
+            }
+            if (random.nextBoolean()) {
+                content.setLength(content.length() - (content.toString().endsWith("\r\n") ? 2 : 1));
+            }
+            Files.write(file, content.toString().getBytes(StandardCharsets.US_ASCII));
+
+            files.clearOutput();
+            TravelRepository scanned = new TravelRepository();
+            Main.loadWithScanner(file.toFile(), scanned);
+            List<String> expected = scanned.stream().map(Main::formatTravel).collect(Collectors.toList());
+            String expectedReports = files.output();
+
+            files.clearOutput();
+            String context = content.toString().replace("\r", "\\r").replace("\n", "\\n");
+            assertEquals(expected, load(file, 1), context);
+            assertEquals(expectedReports, files.output(), context);
+        }
+    }
+
+    @Test
+    void threadsLoadLikeOneThread() throws IOException {
+        Path file = files.directory().resolve("chunks.csv");
+        Files.write(file, chunkBoundaryFile().getBytes(StandardCharsets.US_ASCII));
+
+        files.clearOutput();
+        List<String> expected = load(file, 1);
+        String expectedReports = files.output();
+        assertTrue(expectedReports.contains("Invalid data format: "), expectedReports);
+        assertTrue(expectedReports.contains("Duplicate id: "), expectedReports);
+
+        for (int threads : new int[]{2, 4, 8}) {
+            files.clearOutput();
+            assertEquals(expected, load(file, threads), threads + " threads");
+            assertEquals(expectedReports, files.output(), threads + " threads");
+        }
+    }
+
+    // Travels loaded with the given number of threads, as stored lines in file order
+    private static List<String> load(Path file, int threads) throws IOException {
+        TravelRepository travels = new TravelRepository();
+        new CsvLoader(travels, threads).load(file);
+        return travels.stream().map(Main::formatTravel).collect(Collectors.toList());
+    }
+
+    // Lines of equal length, where the lines on either side of every boundary the loader can cut at are
+    // malformed or repeat an ID: the first line of the chunk repeats the last ID of the one before, or repeats
+    // the first ID of the file, or either line is malformed
+    private static String chunkBoundaryFile() {
+        String[] lines = new String[LINES];
+        for (int i = 0; i < LINES; i++) {
+            lines[i] = line(1000 + i, "01/0" + (1 + i % 9) + "/2022;" + (1 + i % 7) + ";" + (i % 50) + ".5;BUS");
+        }
+        String[] malformed = {"32/01/2022;3;10.5;BUS", "01/01/2022;3;10.5;CAR", "01/01/2022;3;BUS",
+                "01/01/2022;3;10.5;BUS;x", "01/01/2022;x;10.5;BUS", "01/01/2022;3;1,2.5;BUS"};
+        int end = LINES * LINE_LENGTH;
+        for (int i = 1; i < CHUNKS; i++) {
+            // The chunk starts at the line after the one holding this byte
+            int first = (int) ((long) end * i / CHUNKS) / LINE_LENGTH + 1;
+            switch (i % 4) {
+                case 0:
+                    lines[first] = line(1000 + first - 1, "02/02/2022;2;20.5;TRAIN");
+                    break;
+                case 1:
+                    lines[first] = line(1000, "03/03/2022;3;30.5;PLANE");
+                    break;
+                case 2:
+                    lines[first] = line(1000 + first, malformed[i % malformed.length]);
+                    break;
+                default:
+                    lines[first - 1] = line(1000 + first - 1, malformed[i % malformed.length]);
+            }
+        }
+        StringBuilder file = new StringBuilder();
+        for (String line : lines) {
+            file.append(line).append('\n');
+        }
+        return file.toString();
+    }
+
+    // A line with the ID and the fields after the city, padded to LINE_LENGTH through the city name
+    private static String line(int id, String rest) {
+        String start = id + ";Riga";
+        String fields = ";" + rest;
+        return start + "s".repeat(LINE_LENGTH - 1 - start.length() - fields.length()) + fields;
+    }
+}
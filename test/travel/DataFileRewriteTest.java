@@ -0,0 +1,53 @@
+package travel;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Full rewrites of the data file replace it atomically and drop the journal only once the new file is in place
+class DataFileRewriteTest {
+    @RegisterExtension
+    final TemporaryDataFile files = new TemporaryDataFile().withJournal();
+
+    @Test
+    void rewriteReplacesFileAndDropsJournal() throws IOException {
+        Main.createDefaultFile();
+        TravelRepository travels = Main.readDataFromFile();
+        travels.remove(101);
+        Main.persist(travels, "DEL;101", files.session());
+        assertTrue(Files.exists(Main.journalFile));
+
+        Main.updateFile(travels, files.session());
+
+        assertFalse(Files.exists(Main.journalFile));
+        assertFalse(Files.exists(files.directory().resolve("db.csv.tmp")));
+        assertEquals(4, Files.readAllLines(Main.dataFile).size());
+        assertEquals(4, Main.readDataFromFile().size());
+    }
+
+    @Test
+    void failedRewriteKeepsFileAndJournal() throws IOException {
+        Main.createDefaultFile();
+        TravelRepository travels = Main.readDataFromFile();
+        travels.remove(101);
+        Main.persist(travels, "DEL;101", files.session());
+        byte[] data = Files.readAllBytes(Main.dataFile);
+        byte[] journal = Files.readAllBytes(Main.journalFile);
+
+        // The temporary file cannot be created where a directory stands
+        Files.createDirectory(files.directory().resolve("db.csv.tmp"));
+        travels.remove(102);
+        Main.persist(travels, null, files.session());
+
+        assertTrue(files.output().contains("Error updating file."));
+        assertArrayEquals(data, Files.readAllBytes(Main.dataFile));
+        assertArrayEquals(journal, Files.readAllBytes(Main.journalFile));
+        TravelRepository restarted = Main.readDataFromFile();
+        assertFalse(restarted.containsId(101));
+        assertTrue(restarted.containsId(102));
+    }
+}
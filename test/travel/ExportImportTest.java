@@ -0,0 +1,143 @@
+package travel;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// export and the columnar store refusing prices they cannot store, and import refusing snapshots whose
+// checksum holds but whose records do not, each with a message and without touching the loaded travels
+class ExportImportTest {
+    // Offsets of the row count and checksum in the header, its size and the size of a record
+    private static final int ROW_COUNT = 8;
+    private static final int CHECKSUM = 28;
+    private static final int HEADER_SIZE = 44;
+    private static final int RECORD_SIZE = 25;
+
+    @RegisterExtension
+    final TemporaryDataFile files = new TemporaryDataFile();
+
+    private TravelRepository travels;
+    private Path snapshot;
+
+    @BeforeEach
+    void loadTravels() throws IOException {
+        Files.write(Main.dataFile, List.of(
+                "101;Riga;10/03/2022;4;30.5;BUS",
+                "102;Rome;01/02/2022;7;12.0;TRAIN",
+                "103;Oslo;10/03/2022;4;30.5;PLANE"));
+        travels = Main.readDataFromFile();
+        snapshot = files.directory().resolve("travels.bin");
+    }
+
+    @Test
+    void priceOutsideCentsFailsExport() {
+        // add refuses such prices, while edit and db.csv take any number
+        Main.execute("add 104;Kyiv;05/05/2022;3;10;bus", travels, files.session());
+        Main.execute("edit 104;;;;Infinity;", travels, files.session());
+        assertEquals("Export failed, price cannot be stored in cents: 104;Kyiv;05/05/2022;3;"
+                + Main.DECIMAL_FORMAT.get().format(Double.POSITIVE_INFINITY) + ";BUS", run("export " + snapshot));
+        assertFalse(Files.exists(snapshot));
+
+        Main.execute("edit 104;;;;1e17;", travels, files.session());
+        assertTrue(run("export " + snapshot).startsWith("Export failed, price cannot be stored in cents: 104;"));
+        assertFalse(Files.exists(snapshot));
+        Main.execute("edit 104;;;;9e16;", travels, files.session());
+        assertEquals("exported", run("export " + snapshot));
+    }
+
+    @Test
+    void columnarStoreRefusesPricesOutsideCents() throws IOException {
+        Main.columnarStore = true;
+        try {
+            Files.write(Main.dataFile, List.of(
+                    "101;Riga;10/03/2022;4;30.5;BUS",
+                    "102;Rome;01/02/2022;7;1e17;TRAIN",
+                    "103;Oslo;10/03/2022;4;Infinity;PLANE"));
+            assertEquals(List.of(101), ids(travels = Main.readDataFromFile()));
+            assertEquals("wrong price", run("add 104;Kyiv;05/05/2022;3;100000000000000000;bus"));
+            assertEquals("wrong price", run("edit 101;;;;NaN;"));
+            assertEquals("changed", run("edit 101;;;;9e16;"));
+            assertEquals(9e16, travels.findById(101).getPrice());
+        } finally {
+            Main.columnarStore = false;
+        }
+    }
+
+    @Test
+    void exportedTravelsImportBack() {
+        assertEquals("exported", run("export " + snapshot));
+        Main.execute("del 102", travels, files.session());
+        assertEquals("imported", run("import " + snapshot));
+        assertEquals(List.of(101, 102, 103), ids());
+    }
+
+    @Test
+    void recordsOutOfRangeFailImport() throws IOException {
+        assertEquals("exported", run("export " + snapshot));
+        byte[] exported = Files.readAllBytes(snapshot);
+        Main.execute("del 102", travels, files.session());
+        int records = exported.length - 3 * RECORD_SIZE;
+
+        // City ID past the table, negative city ID, vehicle ordinal past the enum and negative
+        for (int[] change : new int[][]{{4, 3}, {4, -1}, {24, VehicleType.values().length}, {24, -1}}) {
+            ByteBuffer corrupt = ByteBuffer.wrap(exported.clone());
+            int offset = records + RECORD_SIZE + change[0];
+            if (change[0] == 24) {
+                corrupt.put(offset, (byte) change[1]);
+            } else {
+                corrupt.putInt(offset, change[1]);
+            }
+            checkRejected(corrupt);
+        }
+
+        // City name longer than the rest of the file, and a negative name length
+        ByteBuffer corrupt = ByteBuffer.wrap(exported.clone());
+        corrupt.putInt(HEADER_SIZE, exported.length);
+        checkRejected(corrupt);
+        corrupt = ByteBuffer.wrap(exported.clone());
+        corrupt.putInt(HEADER_SIZE, -1);
+        checkRejected(corrupt);
+    }
+
+    // Rewrite the snapshot with a valid checksum and check that import leaves the travels as they were
+    private void checkRejected(ByteBuffer corrupt) throws IOException {
+        byte[] bytes = corrupt.array();
+        CRC32 crc = new CRC32();
+        crc.update(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE);
+        corrupt.putLong(CHECKSUM, crc.getValue());
+        assertEquals(3, corrupt.getLong(ROW_COUNT));
+        Files.write(snapshot, bytes);
+
+        assertEquals("Invalid data format: " + snapshot, run("import " + snapshot));
+        assertEquals(List.of(101, 103), ids());
+    }
+
+    private List<Integer> ids() {
+        return ids(travels);
+    }
+
+    private static List<Integer> ids(TravelRepository travels) {
+        List<Integer> ids = new ArrayList<>();
+        for (Travel travel : travels) {
+            ids.add(travel.getId());
+        }
+        return ids;
+    }
+
+    private String run(String command) {
+        files.clearOutput();
+        Main.execute(command, travels, files.session());
+        String output = files.output().trim();
+        files.clearOutput();
+        return output;
+    }
+}
@@ -0,0 +1,122 @@
+package travel;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The file order treap against a list of slots, and the repository's file order against a list of travels
+class FileOrderTest {
+    @Test
+    void matchesListThroughInsertsRemovesAndAppends() {
+        Random random = new Random(23);
+        int[] ids = new int[4096];
+        FileOrder order = new FileOrder(slot -> ids[slot]);
+        List<Integer> expected = new ArrayList<>();
+        Deque<Integer> free = new ArrayDeque<>();
+        for (int slot = 0; slot < ids.length; slot++) {
+            free.add(slot);
+        }
+        for (int step = 0; step < 20000; step++) {
+            int action = random.nextInt(10);
+            if (action < 4 && !free.isEmpty()) {
+                int slot = free.poll();
+                ids[slot] = random.nextInt(1000);
+                int position = random.nextInt(expected.size() + 1);
+                order.insert(position, slot);
+                expected.add(position, slot);
+            } else if (action < 6 && !free.isEmpty()) {
+                // Appends stay unlinked until the next call that reads the tree
+                for (int i = random.nextInt(20); i >= 0 && !free.isEmpty(); i--) {
+                    int slot = free.poll();
+                    ids[slot] = random.nextInt(1000);
+                    order.append(slot);
+                    expected.add(slot);
+                }
+            } else if (!expected.isEmpty()) {
+                int slot = expected.remove(random.nextInt(expected.size()));
+                order.remove(slot);
+                free.add(slot);
+            }
+
+            assertEquals(expected.size(), order.size(), "step " + step);
+            if (!expected.isEmpty()) {
+                int position = random.nextInt(expected.size());
+                assertEquals(expected.get(position), order.slotAt(position), "step " + step);
+                assertEquals(position, order.positionOf(expected.get(position)), "step " + step);
+            }
+            int id = random.nextInt(1000);
+            assertEquals(firstAbove(expected, ids, id), order.positionAbove(id), "step " + step + " id " + id);
+            if (step % 500 == 0) {
+                assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), order.slots());
+            }
+        }
+
+        order.rebuild(new int[]{7, 3, 5}, 2);
+        assertArrayEquals(new int[]{7, 3}, order.slots());
+    }
+
+    @Test
+    void addGoesBeforeTheFirstGreaterIdInAnUnsortedFile() {
+        Random random = new Random(29);
+        TravelRepository travels = new TravelRepository(new ObjectTravelStore());
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            int id = random.nextInt(100000);
+            if (travels.append(travel(id))) {
+                expected.add(id);
+            }
+        }
+        for (int step = 0; step < 3000; step++) {
+            int id = random.nextInt(100000);
+            if (random.nextInt(3) > 0) {
+                if (travels.add(travel(id))) {
+                    int position = 0;
+                    while (position < expected.size() && expected.get(position) <= id) {
+                        position++;
+                    }
+                    expected.add(position, id);
+                }
+            } else if (!expected.isEmpty()) {
+                int removed = expected.remove(random.nextInt(expected.size()));
+                assertTrue(travels.remove(removed));
+            }
+        }
+        assertEquals(expected, travels.stream().map(Travel::getId).collect(Collectors.toList()));
+        for (int position = 0; position < expected.size(); position += 37) {
+            assertEquals(expected.get(position), travels.get(position).getId());
+        }
+    }
+
+    @Test
+    void rollbackPutsRemovedTravelsBackInPlace() {
+        TravelRepository travels = new TravelRepository(new ObjectTravelStore());
+        for (int id : new int[]{5, 1, 9, 3, 7}) {
+            travels.append(travel(id));
+        }
+        travels.beginBatch();
+        travels.remove(9);
+        travels.remove(5);
+        travels.add(travel(4));
+        travels.sortById();
+        travels.rollbackBatch();
+        assertEquals(List.of(5, 1, 9, 3, 7), travels.stream().map(Travel::getId).collect(Collectors.toList()));
+    }
+
+    // Position of the first slot with an ID above the given one, or the size
+    private static int firstAbove(List<Integer> slots, int[] ids, int id) {
+        for (int i = 0; i < slots.size(); i++) {
+            if (ids[slots.get(i)] > id) {
+                return i;
+            }
+        }
+        return slots.size();
+    }
+
+    private static Travel travel(int id) {
+        return new Travel(id, "Riga", LocalDate.of(2022, 1, 1), 3, 10.0, VehicleType.BUS);
+    }
+}
@@ -0,0 +1,128 @@
+package travel;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Group commit: every acknowledged record is in the journal once, groups respect the batch size, and
+// compaction drains the queue first
+class GroupCommitTest {
+    private static final Pattern METRICS = Pattern.compile("groups=(\\d+) records=(\\d+) group avg=\\S+ max=(\\d+)");
+
+    @RegisterExtension
+    final TemporaryDataFile files = new TemporaryDataFile().withJournal();
+
+    @BeforeEach
+    void createDataFile() {
+        Main.createDefaultFile();
+    }
+
+    @Test
+    void concurrentWritersShareGroups() throws Exception {
+        Main.readDataFromFile();
+        Main.groupCommitter = new GroupCommitter(2000, 128);
+        int writers = 8;
+        int recordsPerWriter = 50;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int first = 200 + w * recordsPerWriter;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int id = first; id < first + recordsPerWriter; id++) {
+                        CompletableFuture<Void> commit = Main.groupCommitter.submit(record(id), 1);
+                        commit.join();
+                        // Acknowledged means the record is already in the journal
+                        assertTrue(journal().contains(record(id)), "missing " + id);
+                    }
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(List.of(), failures);
+
+        long[] metrics = metrics();
+        assertEquals(writers * recordsPerWriter, metrics[1]);
+        assertTrue(metrics[0] < metrics[1], Main.groupCommitter.metrics());
+        assertTrue(metrics[2] <= 128);
+
+        TravelRepository travels = Main.readDataFromFile();
+        assertEquals(5 + writers * recordsPerWriter, travels.size());
+    }
+
+    @Test
+    void groupsStopAtBatchSize() {
+        Main.readDataFromFile();
+        // A long window, so that only the batch size closes a group
+        Main.groupCommitter = new GroupCommitter(300_000, 4);
+        List<CompletableFuture<Void>> commits = new ArrayList<>();
+        for (int id = 200; id < 210; id++) {
+            commits.add(Main.groupCommitter.submit(record(id), 1));
+        }
+        commits.forEach(CompletableFuture::join);
+
+        long[] metrics = metrics();
+        assertEquals(10, metrics[1]);
+        assertEquals(4, metrics[2]);
+        assertTrue(metrics[0] >= 3);
+    }
+
+    @Test
+    void compactionDrainsQueuedRecords() throws IOException {
+        TravelRepository travels = Main.readDataFromFile();
+        Main.groupCommitter = new GroupCommitter(10_000_000, 128);
+        Travel travel = new Travel(200, "Riga", LocalDate.of(2022, 1, 1), 3, 10.0, VehicleType.BUS);
+        travels.add(travel);
+        CompletableFuture<Void> commit = Main.groupCommitter.submit(record(200), 1);
+        assertFalse(commit.isDone());
+
+        // Without the drain the queued record would land in a journal for the compacted file and replay twice
+        Main.compactJournal(travels, files.session());
+        assertTrue(commit.isDone());
+        Main.groupCommitter.submit(record(201), 1).join();
+
+        TravelRepository restarted = Main.readDataFromFile();
+        assertEquals(7, restarted.size());
+        assertEquals(1, Files.readAllLines(Main.dataFile).stream().filter(line -> line.startsWith("200;")).count());
+    }
+
+    private static String record(int id) {
+        return "ADD;" + id + ";Riga;01/01/2022;3;10.00;BUS\n";
+    }
+
+    private static String journal() throws IOException {
+        return new String(Files.readAllBytes(Main.journalFile), StandardCharsets.UTF_8);
+    }
+
+    // Groups, records and the largest group
+    private static long[] metrics() {
+        Matcher matcher = METRICS.matcher(Main.groupCommitter.metrics());
+        assertTrue(matcher.find(), Main.groupCommitter.metrics());
+        return new long[]{Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2)),
+                Long.parseLong(matcher.group(3))};
+    }
+}
@@ -0,0 +1,188 @@
+package travel;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Active, overlap and busiest-day answers against a scan of every row, while adds, edits that move or
+// resize trips, and deletes that leave days without any trip change the repository
+class IntervalIndexTest {
+    private static final LocalDate START = LocalDate.of(2022, 1, 1);
+    // Few IDs over a short calendar, so that days fill up and empty again often
+    private static final int IDS = 40;
+    private static final int SPAN = 90;
+
+    @Test
+    void objectStoreMatchesScan() {
+        for (long seed = 1; seed <= 10; seed++) {
+            check(new TravelRepository(new ObjectTravelStore()), seed);
+        }
+    }
+
+    @Test
+    void columnarStoreMatchesScan() {
+        for (long seed = 1; seed <= 10; seed++) {
+            check(new TravelRepository(new ColumnarTravelStore()), seed);
+        }
+    }
+
+    @Test
+    void deletingEveryTripEmptiesAllDays() {
+        TravelRepository travels = new TravelRepository(new ObjectTravelStore());
+        travels.add(new Travel(101, "Riga", START, 3, 10.0, VehicleType.BUS));
+        travels.add(new Travel(102, "Rome", START.plusDays(1), 1, 20.0, VehicleType.PLANE));
+        assertArrayEquals(new long[]{START.plusDays(1).toEpochDay(), 2}, travels.busiestDay(Long.MIN_VALUE,
+                Long.MAX_VALUE));
+
+        travels.remove(102);
+        assertArrayEquals(new long[]{START.toEpochDay(), 1}, travels.busiestDay(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertNull(travels.busiestDay(START.plusDays(3).toEpochDay(), Long.MAX_VALUE));
+
+        travels.remove(101);
+        assertNull(travels.busiestDay(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(0, activeIds(travels, "active = " + format(START.toEpochDay())).size());
+    }
+
+    @Test
+    void dayCountsMatchPerDayCounters() {
+        Random random = new Random(17);
+        DayCounts counts = new DayCounts();
+        int[] expected = new int[2 * SPAN];
+        List<long[]> ranges = new ArrayList<>();
+        for (int step = 0; step < 5000; step++) {
+            if (ranges.isEmpty() || random.nextInt(3) != 0) {
+                long first = random.nextInt(SPAN);
+                long last = first + random.nextInt(20) - 2;
+                ranges.add(new long[]{first, last});
+                counts.add(first, last, 1);
+                for (long day = first; day <= last; day++) {
+                    expected[(int) day]++;
+                }
+            } else {
+                long[] range = ranges.remove(random.nextInt(ranges.size()));
+                counts.add(range[0], range[1], -1);
+                for (long day = range[0]; day <= range[1]; day++) {
+                    expected[(int) day]--;
+                }
+            }
+            long low = random.nextInt(SPAN);
+            long high = low + random.nextInt(SPAN);
+            assertArrayEquals(busiest(expected, low, high), counts.max(low, high), "step " + step);
+        }
+    }
+
+    // Random mutations with the index answers compared to the model after each of them
+    private static void check(TravelRepository travels, long seed) {
+        Random random = new Random(seed);
+        Map<Integer, Travel> model = new HashMap<>();
+        for (int step = 0; step < 1500; step++) {
+            mutate(travels, model, random);
+            assertMatches(travels, model, random, "seed " + seed + " step " + step);
+        }
+
+        // Emptying the repository one row at a time takes every day back to zero
+        List<Integer> ids = new ArrayList<>(model.keySet());
+        Collections.shuffle(ids, random);
+        for (int id : ids) {
+            travels.remove(id);
+            model.remove(id);
+            assertMatches(travels, model, random, "seed " + seed + " removing " + id);
+        }
+        assertNull(travels.busiestDay(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    private static void mutate(TravelRepository travels, Map<Integer, Travel> model, Random random) {
+        int id = 100 + random.nextInt(IDS);
+        Travel travel = travel(random, id);
+        switch (random.nextInt(3)) {
+            case 0:
+                if (travels.add(travel)) {
+                    model.put(id, travel);
+                }
+                break;
+            case 1:
+                // Moves the trip to another date and length, or gives it no days at all
+                if (travels.replace(travel)) {
+                    model.put(id, travel);
+                }
+                break;
+            default:
+                travels.remove(id);
+                model.remove(id);
+        }
+    }
+
+    private static Travel travel(Random random, int id) {
+        return new Travel(id, "Riga", START.plusDays(random.nextInt(SPAN)), random.nextInt(12), 10.0,
+                VehicleType.BUS);
+    }
+
+    private static void assertMatches(TravelRepository travels, Map<Integer, Travel> model, Random random,
+                                      String context) {
+        long day = START.toEpochDay() - 5 + random.nextInt(SPAN + 10);
+        long low = START.toEpochDay() - 5 + random.nextInt(SPAN + 10);
+        long high = low + random.nextInt(15);
+
+        String active = "active = " + format(day);
+        assertEquals(scan(model, day, day), activeIds(travels, active), context + ": " + active);
+        String overlap = "active between " + format(low) + " and " + format(high);
+        assertEquals(scan(model, low, high), activeIds(travels, overlap), context + ": " + overlap);
+
+        assertArrayEquals(busiest(model, low, high), travels.busiestDay(low, high), context + " busiest in window");
+        assertArrayEquals(busiest(model, Long.MIN_VALUE, Long.MAX_VALUE),
+                travels.busiestDay(Long.MIN_VALUE, Long.MAX_VALUE), context + " busiest overall");
+    }
+
+    // IDs found through the planned query, checked against the count the same plan reports
+    private static Set<Integer> activeIds(TravelRepository travels, String query) {
+        QueryPlan plan = travels.plan(Main.parseQuery(query));
+        Set<Integer> ids = new TreeSet<>();
+        travels.find(plan, travel -> ids.add(travel.getId()));
+        assertEquals(ids.size(), travels.count(plan), query + " count");
+        return ids;
+    }
+
+    // IDs of the travels under way on at least one day of [low, high]
+    private static Set<Integer> scan(Map<Integer, Travel> model, long low, long high) {
+        Set<Integer> ids = new TreeSet<>();
+        for (Travel travel : model.values()) {
+            long first = travel.getDate().toEpochDay();
+            long last = first + travel.getDays() - 1;
+            if (first <= high && last >= low && first <= last) {
+                ids.add(travel.getId());
+            }
+        }
+        return ids;
+    }
+
+    private static long[] busiest(Map<Integer, Travel> model, long low, long high) {
+        int[] counts = new int[SPAN + 20];
+        for (Travel travel : model.values()) {
+            long first = travel.getDate().toEpochDay() - START.toEpochDay();
+            for (long day = first; day < first + travel.getDays(); day++) {
+                counts[(int) day]++;
+            }
+        }
+        long start = START.toEpochDay();
+        long[] best = busiest(counts, Math.max(low, start) - start, Math.min(high, start + counts.length - 1) - start);
+        return best == null ? null : new long[]{best[0] + start, best[1]};
+    }
+
+    // Earliest day with the highest count in [low, high], or null when every count there is zero
+    private static long[] busiest(int[] counts, long low, long high) {
+        long[] best = null;
+        for (long day = Math.max(low, 0); day <= Math.min(high, counts.length - 1); day++) {
+            if (counts[(int) day] > 0 && (best == null || counts[(int) day] > best[1])) {
+                best = new long[]{day, counts[(int) day]};
+            }
+        }
+        return best;
+    }
+
+    private static String format(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay).format(Main.DATE_FORMATTER);
+    }
+}
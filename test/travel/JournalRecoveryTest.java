@@ -0,0 +1,138 @@
+package travel;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Journal replay after crashes: torn tails, malformed records and a process killed while appending
+class JournalRecoveryTest {
+    @RegisterExtension
+    final TemporaryDataFile files = new TemporaryDataFile().withJournal();
+
+    @Test
+    void skipsMalformedRecordsAndCutsTornTail() throws IOException {
+        Main.createDefaultFile();
+        String journal = Main.snapshotHeader() + "\n" +
+                "ADD;106;Riga;01/01/2022;3;100.50;BUS\n" +
+                "ADD;108;Bad;xx/01/2022;3;1.00;BUS\n" +
+                "ADD;109;Bad;01/01/2022;x;1.00;BUS\n" +
+                "ADD;110;Bad;01/01/2022;3;1.00;CAR\n" +
+                "DEL\n" +
+                "DEL;102\n" +
+                "ADD;107;Oslo;01/0";
+        Files.write(Main.journalFile, journal.getBytes(StandardCharsets.UTF_8));
+
+        TravelRepository travels = Main.readDataFromFile();
+
+        assertTrue(travels.containsId(106));
+        assertFalse(travels.containsId(102));
+        assertFalse(travels.containsId(107));
+        assertFalse(travels.containsId(108));
+        assertFalse(travels.containsId(109));
+        assertFalse(travels.containsId(110));
+        assertEquals(5, travels.size());
+        String printed = files.output();
+        assertTrue(printed.contains("Invalid journal record: ADD;108;Bad;xx/01/2022;3;1.00;BUS"), printed);
+        assertTrue(printed.contains("Invalid journal record: DEL\n"), printed);
+        assertTrue(new String(Files.readAllBytes(Main.journalFile), StandardCharsets.UTF_8).endsWith("DEL;102\n"));
+
+        // The same journal replays the same way on the next start
+        assertEquals(5, Main.readDataFromFile().size());
+    }
+
+    @Test
+    void cutsDanglingGroupSoLaterAppendsSurviveRestarts() throws IOException {
+        Main.createDefaultFile();
+        String committed = Main.snapshotHeader() + "\n" +
+                "DEL;101\n" +
+                "BEGIN\nDEL;102\nDEL;103\nCOMMIT\n";
+        String journal = committed +
+                "BEGIN\nDEL;104\nADD;106;Riga;01/01/2022;3;100.50;BUS\n";
+        Files.write(Main.journalFile, journal.getBytes(StandardCharsets.UTF_8));
+
+        // First restart drops the unfinished group and cuts it from the file
+        TravelRepository travels = Main.readDataFromFile();
+        assertEquals(2, travels.size());
+        assertTrue(travels.containsId(104));
+        assertFalse(travels.containsId(106));
+        assertEquals(committed, new String(Files.readAllBytes(Main.journalFile), StandardCharsets.UTF_8));
+
+        // Appends after the restart land outside the dropped group ...
+        travels.add(new Travel(107, "Oslo", LocalDate.of(2022, 2, 2), 4, 50.0, VehicleType.TRAIN));
+        Main.persist(travels, "ADD;107;Oslo;02/02/2022;4;50.00;TRAIN", files.session());
+        Main.beginBatch(travels, files.session());
+        travels.remove(105);
+        Main.persist(travels, "DEL;105", files.session());
+        travels.remove(107);
+        Main.persist(travels, "DEL;107", files.session());
+        Main.commitBatch(travels, files.session());
+        travels.add(new Travel(108, "Rome", LocalDate.of(2022, 3, 3), 5, 75.0, VehicleType.PLANE));
+        Main.persist(travels, "ADD;108;Rome;03/03/2022;5;75.00;PLANE", files.session());
+
+        // ... so the second restart replays all of them
+        TravelRepository restarted = Main.readDataFromFile();
+        assertEquals(2, restarted.size());
+        assertTrue(restarted.containsId(104));
+        assertTrue(restarted.containsId(108));
+        assertFalse(restarted.containsId(105));
+        assertFalse(restarted.containsId(107));
+        assertEquals(2, Main.readDataFromFile().size());
+    }
+
+    @Test
+    void keepsAcknowledgedAddsWhenKilledWhileAppending() throws Exception {
+        Process process = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), "travel.Main",
+                "--journal", "--file=" + Main.dataFile)
+                .redirectErrorStream(true)
+                .start();
+
+        // Keep adding while the acknowledgements are read, so the kill lands between or inside appends
+        Thread writer = new Thread(() -> {
+            try (PrintWriter commands = new PrintWriter(new OutputStreamWriter(process.getOutputStream(),
+                    StandardCharsets.UTF_8), true)) {
+                for (int id = 200; id <= 999; id++) {
+                    commands.println("add " + id + ";riga;01/01/2022;3;10.50;bus");
+                }
+            }
+        });
+        writer.start();
+
+        int acknowledged = 0;
+        try (BufferedReader replies = new BufferedReader(new InputStreamReader(process.getInputStream(),
+                StandardCharsets.UTF_8))) {
+            String reply;
+            while (acknowledged < 300 && (reply = replies.readLine()) != null) {
+                if (reply.equals("added")) {
+                    acknowledged++;
+                }
+            }
+            process.destroyForcibly();
+            assertTrue(process.waitFor(10, TimeUnit.SECONDS));
+        }
+        writer.join();
+        assertEquals(300, acknowledged);
+
+        // Every acknowledged add survives, and whatever was cut off leaves the journal readable
+        TravelRepository travels = Main.readDataFromFile();
+        for (int id = 200; id < 200 + acknowledged; id++) {
+            assertTrue(travels.containsId(id), "lost acknowledged add " + id);
+        }
+        for (Travel travel : travels) {
+            if (travel.getId() >= 200) {
+                assertEquals("Riga", travel.getCity());
+                assertEquals(10.50, travel.getPrice());
+            }
+        }
+        assertEquals(travels.size(), Main.readDataFromFile().size());
+        assertFalse(files.output().contains("Invalid journal record"));
+    }
+}
@@ -0,0 +1,39 @@
+package travel;
+
+// The regex and exception based parsing that execute, isNumeric, isThreeDigitNumeric and formatCityName used
+// before the hand-written parser, kept as the reference it must agree with and the baseline it is measured against
+final class LegacyParser {
+    private LegacyParser() {
+    }
+
+    static Command command(String input) {
+        try {
+            return Command.valueOf(input.split("\\s+", 2)[0].toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    static String[] args(String input) {
+        String[] parts = input.split("\\s+", 2);
+        return parts.length > 1 ? parts[1].split(";") : new String[0];
+    }
+
+    static boolean isNumeric(String value) {
+        return value.matches("-?\\d+(\\.\\d+)?");
+    }
+
+    static boolean isThreeDigitNumeric(String value) {
+        return value.matches("\\d{3}");
+    }
+
+    static String cityName(String cityName) {
+        StringBuilder formattedCityName = new StringBuilder();
+        for (String word : cityName.split("\\s|-")) {
+            if (!word.isEmpty()) {
+                formattedCityName.append(word.substring(0, 1).toUpperCase() + word.substring(1).toLowerCase()).append(" ");
+            }
+        }
+        return formattedCityName.toString().trim();
+    }
+}
@@ -0,0 +1,54 @@
+package travel;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Client of the line-protocol server: sends one command and reads its response up to the empty line ending it.
+// Shared with the server benchmarks in jmh/ through the test jar
+final class LineClient implements Closeable {
+    private final Socket socket;
+    private final BufferedReader in;
+    private final Writer out;
+
+    LineClient(int port) throws IOException {
+        socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+    }
+
+    // Number of response lines
+    int send(String command) throws IOException {
+        out.write(command + "\n");
+        out.flush();
+        int lines = 0;
+        for (String line = in.readLine(); line != null && !line.isEmpty(); line = in.readLine()) {
+            lines++;
+        }
+        return lines;
+    }
+
+    // Response lines
+    List<String> request(String command) throws IOException {
+        out.write(command + "\n");
+        out.flush();
+        List<String> lines = new ArrayList<>();
+        for (String line = in.readLine(); line != null && !line.isEmpty(); line = in.readLine()) {
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,132 @@
+package travel;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Paged print and find: limit and offset pick the slice, next continues where the last page stopped until
+// there is none, and rows added or removed before the cursor shift what the next page shows
+class PagingTest {
+    @RegisterExtension
+    final TemporaryDataFile files = new TemporaryDataFile();
+
+    private TravelRepository travels;
+
+    // IDs 101 to 112 in file order; even IDs go by bus and cost 10 times their last digit
+    @BeforeEach
+    void loadTravels() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int id = 101; id <= 112; id++) {
+            lines.add(id + ";Riga;01/0" + (1 + id % 9) + "/2022;3;" + (id % 10) * 10 + ".0;"
+                    + (id % 2 == 0 ? "BUS" : "TRAIN"));
+        }
+        Files.write(Main.dataFile, lines);
+        travels = Main.readDataFromFile();
+    }
+
+    @Test
+    void printPagesSliceFileOrder() {
+        List<Integer> all = IntStream.rangeClosed(101, 112).boxed().collect(Collectors.toList());
+        for (int limit = 1; limit <= 13; limit += 4) {
+            for (int offset = 0; offset <= 13; offset += 3) {
+                String context = "limit=" + limit + " offset=" + offset;
+                assertEquals(slice(all, offset, limit), ids("print limit=" + limit + ";offset=" + offset), context);
+                // Each next page continues the slice until the rows run out
+                for (int from = offset + limit; from < all.size(); from += limit) {
+                    assertEquals(slice(all, from, limit), ids("next"), context + " from " + from);
+                }
+                assertEquals("no more pages", run("next"), context);
+            }
+        }
+        assertEquals(slice(all, 0, 5), ids("print limit=5"));
+        assertEquals(slice(all, 10, 12), ids("print offset=10"));
+    }
+
+    @Test
+    void findPagesSliceMatchesInFileOrder() {
+        // Prices up to 40: 110, 101, 102, 103, 104, 111, 112
+        assertEquals(List.of(101, 102, 103), ids("find 40;limit=3"));
+        assertEquals(List.of(104, 110, 111), ids("next"));
+        assertEquals(List.of(112), ids("next"));
+        assertEquals("no more pages", run("next"));
+
+        assertEquals(List.of(104), ids("find 30;50;limit=1;offset=1"));
+        assertEquals(List.of(105), ids("next"));
+        assertEquals("no more pages", run("next"));
+
+        assertEquals(List.of(104, 106), ids("find vehicle = bus;limit=2;offset=1"));
+        assertEquals(List.of(108, 110), ids("next"));
+        assertEquals(List.of(112), ids("next"));
+        assertEquals("no more pages", run("next"));
+    }
+
+    @Test
+    void sortedPrintPagesFollowTheView() {
+        run("sort price");
+        // Price ties keep file order: 110 costs 0, then 101 and 111 cost 10
+        assertEquals(List.of(110, 101, 111), ids("print limit=3"));
+        assertEquals(List.of(102, 112, 103), ids("next"));
+    }
+
+    @Test
+    void changesBeforeTheCursorShiftTheNextPage() {
+        assertEquals(List.of(101, 102, 103), ids("print limit=3"));
+        // The cursor stays at file position 3, so removing a row before it skips one row
+        assertEquals("deleted", run("del 101"));
+        assertEquals(List.of(105, 106, 107), ids("next"));
+
+        // and adding one before it shows a row again
+        assertEquals("added", run("add 100;Oslo;01/01/2022;3;10;bus"));
+        assertEquals(List.of(107, 108, 109), ids("next"));
+
+        // Changes after the cursor are picked up as they are
+        assertEquals("deleted", run("del 111"));
+        assertEquals(List.of(110, 112), ids("next"));
+        assertEquals("no more pages", run("next"));
+    }
+
+    @Test
+    void wrongPagingArgumentsAreReported() {
+        assertEquals("wrong limit", run("print limit=0"));
+        assertEquals("wrong limit", run("print limit=x;offset=1"));
+        assertEquals("wrong offset", run("print offset=-1"));
+        assertEquals("wrong offset", run("find 50;offset=99999999999"));
+        // Only limit= and offset= may follow print
+        assertEquals("wrong field count", run("print all"));
+        assertEquals("wrong field count", run("print limit=2;all"));
+        assertEquals("no more pages", run("next"));
+    }
+
+    private static List<Integer> slice(List<Integer> ids, int from, int limit) {
+        return ids.subList(Math.min(from, ids.size()), Math.min(from + limit, ids.size()));
+    }
+
+    // Output of a command, trimmed
+    private String run(String command) {
+        files.clearOutput();
+        Main.execute(command, travels, files.session());
+        String output = files.output().trim();
+        files.clearOutput();
+        return output;
+    }
+
+    // IDs of the table rows a command prints
+    private List<Integer> ids(String command) {
+        List<Integer> ids = new ArrayList<>();
+        for (String line : run(command).split("\n")) {
+            String first = line.trim().split("\\s+")[0];
+            if (!first.isEmpty() && first.chars().allMatch(Character::isDigit)) {
+                ids.add(Integer.parseInt(first));
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,118 @@
+package travel;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The hand-written parser against the regex pipeline it replaced, on random lines and on the messages
+// the original program printed for invalid commands
+class ParserEquivalenceTest {
+    @RegisterExtension
+    final TemporaryDataFile files = new TemporaryDataFile();
+
+    // Random lines of command names, separators, all kinds of regex whitespace and letters that change
+    // length or case oddly, must give the same command, arguments, validation results and city names
+    @Test
+    void randomLinesParseLikeLegacyParser() {
+        Random random = new Random(42);
+        String[] names = Arrays.stream(Command.values()).map(Enum::name).toArray(String[]::new);
+        String alphabet = "aeiouzAEZ0123456789 ;;;--..\t\n\u000B\f\réÉßİı";
+        for (int i = 0; i < 200_000; i++) {
+            StringBuilder line = new StringBuilder();
+            if (random.nextBoolean()) {
+                String name = names[random.nextInt(names.length)];
+                line.append(random.nextInt(4) == 0 ? name : name.toLowerCase());
+            }
+            int length = random.nextInt(24);
+            for (int j = 0; j < length; j++) {
+                line.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String input = line.toString();
+            String[] args = Main.commandArgs(input, Main.commandEnd(input));
+            assertEquals(LegacyParser.command(input), Main.commandOf(input), () -> "command of \"" + input + "\"");
+            assertArrayEquals(LegacyParser.args(input), args, () -> "arguments of \"" + input + "\"");
+            for (int j = -1; j < args.length; j++) {
+                String value = j < 0 ? input : args[j];
+                assertEquals(LegacyParser.isNumeric(value), Main.isNumeric(value), () -> "isNumeric \"" + value + "\"");
+                assertEquals(LegacyParser.isThreeDigitNumeric(value), Main.isThreeDigitNumeric(value),
+                        () -> "isThreeDigitNumeric \"" + value + "\"");
+                assertEquals(LegacyParser.cityName(value), Main.formatCityName(value),
+                        () -> "formatCityName \"" + value + "\"");
+            }
+        }
+    }
+
+    // The status-returning number and date parsers against the JDK parsers they replaced, on random text
+    // built from the characters and fragments those parsers treat specially
+    @Test
+    void numbersAndDatesParseLikeJdkParsers() {
+        Random random = new Random(43);
+        String[] fragments = {"0", "1", "9", "2147483647", "2147483648", "-", "+", ".", "e", "E", "p", "x", "X",
+                "0x", "a", "F", "d", "f", "D", "NaN", "Infinity", " ", "\t", "\u0663", "/", "/02/", "29", "31",
+                "00", "12", "13", "2024", "2023", "0000", "+12345", "99999999999"};
+        for (int i = 0; i < 300_000; i++) {
+            StringBuilder text = new StringBuilder();
+            if (random.nextInt(3) == 0) {
+                // Mostly well-formed dates, with every day and month number and some odd years
+                text.append(String.format("%02d/%02d/", random.nextInt(34), random.nextInt(15)));
+            }
+            for (int j = random.nextInt(6); j >= 0; j--) {
+                text.append(fragments[random.nextInt(fragments.length)]);
+            }
+            String input = text.toString();
+
+            Long integer;
+            try {
+                integer = (long) Integer.parseInt(input);
+            } catch (NumberFormatException e) {
+                integer = Main.NOT_AN_INT;
+            }
+            assertEquals(integer, Main.parseInteger(input), () -> "parseInteger \"" + input + "\"");
+
+            boolean isDouble;
+            try {
+                Double.parseDouble(input);
+                isDouble = true;
+            } catch (NumberFormatException e) {
+                isDouble = false;
+            }
+            assertEquals(isDouble, Main.isDouble(input), () -> "isDouble \"" + input + "\"");
+
+            LocalDate date;
+            try {
+                date = LocalDate.parse(input, Main.DATE_FORMATTER);
+            } catch (DateTimeParseException e) {
+                date = null;
+            }
+            assertEquals(date, Main.parseDate(input), () -> "parseDate \"" + input + "\"");
+        }
+    }
+
+    // golden/commands.out is what the original program printed for golden/commands.txt
+    @Test
+    void printsOriginalMessages() throws IOException {
+        Main.createDefaultFile();
+        TravelRepository travels = Main.readDataFromFile();
+        for (String line : resource("/golden/commands.txt").split("\n")) {
+            Main.execute(line.trim().toLowerCase(), travels, files.session());
+        }
+        assertEquals(resource("/golden/commands.out").replace("\n", System.lineSeparator()),
+                files.output());
+    }
+
+    private static String resource(String name) throws IOException {
+        try (InputStream in = ParserEquivalenceTest.class.getResourceAsStream(name)) {
+            assertNotNull(in, name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package travel;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The running aggregates must always equal a full recomputation over the current rows
+class PriceStatisticsTest {
+    private static final String[] CITIES = {"Riga", "Rome", "Oslo", "Paris", "Vilnius"};
+    private static final VehicleType[] VEHICLES = VehicleType.values();
+
+    @Test
+    void objectStoreMatchesRecomputation() {
+        for (long seed = 1; seed <= 20; seed++) {
+            check(new TravelRepository(new ObjectTravelStore()), seed);
+        }
+    }
+
+    @Test
+    void columnarStoreMatchesRecomputation() {
+        for (long seed = 1; seed <= 20; seed++) {
+            check(new TravelRepository(new ColumnarTravelStore()), seed);
+        }
+    }
+
+    @Test
+    void batchRollbackRestoresAggregates() {
+        Random random = new Random(7);
+        TravelRepository travels = new TravelRepository(new ObjectTravelStore());
+        for (int id = 100; id < 200; id++) {
+            travels.add(travel(random, id));
+        }
+        travels.getStatistics();
+        travels.beginBatch();
+        for (int i = 0; i < 50; i++) {
+            mutate(travels, random);
+        }
+        travels.rollbackBatch();
+        assertMatches(travels);
+    }
+
+    @Test
+    void smallGroupLosesItsExtremesAmongManyRows() {
+        TravelRepository travels = new TravelRepository(new ObjectTravelStore());
+        for (int id = 1; id <= 1000; id++) {
+            travels.add(new Travel(id, "Riga", LocalDate.of(2022, 1, 1), 3, id, VehicleType.BUS));
+        }
+        travels.add(new Travel(2001, "Rome", LocalDate.of(2022, 1, 1), 3, 10.0, VehicleType.PLANE));
+        travels.add(new Travel(2002, "Rome", LocalDate.of(2022, 1, 1), 3, 20.0, VehicleType.PLANE));
+        travels.add(new Travel(2003, "Rome", LocalDate.of(2022, 1, 1), 3, Double.NaN, VehicleType.PLANE));
+        travels.add(new Travel(2004, "Rome", LocalDate.of(2022, 1, 1), 3, 30.0, VehicleType.PLANE));
+
+        PriceAggregate rome = travels.getStatistics().getByCity().get("Rome");
+        assertEquals(10.0, rome.getMin());
+        assertEquals(30.0, rome.getMax());
+        travels.remove(2004);
+        travels.remove(2001);
+        assertEquals(20.0, rome.getMin());
+        assertEquals(20.0, rome.getMax());
+
+        // NaN never counts as min or max, as when the prices are folded in one by one
+        travels.remove(2002);
+        assertEquals(Double.POSITIVE_INFINITY, rome.getMin());
+        assertEquals(Double.NEGATIVE_INFINITY, rome.getMax());
+        assertEquals(1.0, travels.getStatistics().getTotal().getMin());
+        assertEquals(1000.0, travels.getStatistics().getTotal().getMax());
+        travels.remove(2003);
+        assertFalse(travels.getStatistics().getByCity().containsKey("Rome"));
+        assertMatches(travels);
+    }
+
+    // Random adds, edits and removals over a small ID and price range, so that ties on min and max are common
+    private static void check(TravelRepository travels, long seed) {
+        Random random = new Random(seed);
+        for (int step = 0; step < 2000; step++) {
+            mutate(travels, random);
+            // Read at random moments, so that stale extremes pile up across several removals between reads
+            if (random.nextInt(8) == 0) {
+                assertMatches(travels);
+            }
+        }
+        assertMatches(travels);
+    }
+
+    private static void mutate(TravelRepository travels, Random random) {
+        int id = 100 + random.nextInt(60);
+        switch (random.nextInt(3)) {
+            case 0:
+                travels.add(travel(random, id));
+                break;
+            case 1:
+                travels.replace(travel(random, id));
+                break;
+            default:
+                travels.remove(id);
+        }
+    }
+
+    private static Travel travel(Random random, int id) {
+        return new Travel(id, CITIES[random.nextInt(CITIES.length)],
+                LocalDate.of(2022, 1, 1).plusDays(random.nextInt(365)), 1 + random.nextInt(14),
+                random.nextInt(2000) / 4.0, VEHICLES[random.nextInt(VEHICLES.length)]);
+    }
+
+    private static void assertMatches(TravelRepository travels) {
+        List<Travel> rows = new ArrayList<>();
+        travels.forEach(rows::add);
+        PriceStatistics statistics = travels.getStatistics();
+
+        if (!rows.isEmpty()) {
+            assertAggregate(rows, statistics.getTotal(), "total");
+        }
+        assertGroups(rows, Travel::getVehicle, statistics.getByVehicle());
+        assertGroups(rows, Travel::getCity, statistics.getByCity());
+    }
+
+    private static <K> void assertGroups(List<Travel> rows, Function<Travel, K> key,
+                                         Map<K, PriceAggregate> groups) {
+        Map<K, List<Travel>> expected = new HashMap<>();
+        for (Travel travel : rows) {
+            expected.computeIfAbsent(key.apply(travel), group -> new ArrayList<>()).add(travel);
+        }
+        assertEquals(expected.keySet(), groups.keySet());
+        expected.forEach((group, members) -> assertAggregate(members, groups.get(group), group));
+    }
+
+    private static void assertAggregate(List<Travel> rows, PriceAggregate aggregate, Object group) {
+        BigDecimal sum = BigDecimal.ZERO;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (Travel travel : rows) {
+            sum = sum.add(new BigDecimal(travel.getPrice()));
+            min = Math.min(min, travel.getPrice());
+            max = Math.max(max, travel.getPrice());
+        }
+        double average = sum.divide(BigDecimal.valueOf(rows.size()), MathContext.DECIMAL64).doubleValue();
+        assertEquals(rows.size(), aggregate.getCount(), group + " count");
+        assertEquals(average, aggregate.getAverage(), group + " average");
+        assertEquals(min, aggregate.getMin(), group + " min");
+        assertEquals(max, aggregate.getMax(), group + " max");
+    }
+}
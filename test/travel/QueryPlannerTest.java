@@ -0,0 +1,150 @@
+package travel;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Query parsing, plan choice and plans against a scan of every row
+class QueryPlannerTest {
+    private static final String[] CITIES = {"Riga", "Rome", "New York", "Oslo", "Saint Petersburg"};
+    private static final VehicleType[] VEHICLES = VehicleType.values();
+    private static final LocalDate START = LocalDate.of(2022, 1, 1);
+
+    @Test
+    void parsesConditions() {
+        List<Condition> conditions = Main.parseQuery(
+                "city = new york and vehicle=plane and date between 01/01/2021 and 31/12/2021 and days >= 5 and price<100");
+        assertEquals(5, conditions.size());
+        assertEquals("new york", conditions.get(0).getCity());
+        assertEquals(VehicleType.PLANE, conditions.get(1).getVehicle());
+        assertEquals(LocalDate.of(2021, 1, 1).toEpochDay(), conditions.get(2).getLow());
+        assertEquals(LocalDate.of(2021, 12, 31).toEpochDay(), conditions.get(2).getHigh());
+        assertEquals(5, conditions.get(3).getLow());
+        assertEquals(Double.POSITIVE_INFINITY, conditions.get(3).getHigh());
+        assertEquals(Math.nextDown(100.0), conditions.get(4).getHigh());
+        assertEquals("price < 100", conditions.get(4).toString());
+    }
+
+    @Test
+    void reportsQueryErrors() {
+        assertError("wrong query", "color = red");
+        assertError("wrong query", "city rome");
+        assertError("wrong query", "city > rome");
+        assertError("wrong query", "days >= 5 or price < 3");
+        assertError("wrong query", "date between 01/01/2021 or 02/01/2021");
+        assertError("wrong vehicle", "vehicle = car");
+        assertError("wrong date", "date = 2021-01-01");
+        assertError("wrong day count", "days > five");
+        assertError("wrong price", "price <= cheap");
+        assertError("wrong id", "id = 1.5");
+    }
+
+    @Test
+    void plansMostSelectiveLookupFirst() {
+        TravelRepository travels = dataset(new Random(3), 900);
+        QueryPlan plan = travels.plan(Main.parseQuery("vehicle = bus and city = oslo and days >= 3"));
+        List<String> steps = plan.describe();
+        assertEquals(3, steps.size(), steps.toString());
+        assertTrue(steps.get(0).startsWith("lookup city bitmap (city = oslo) rows="), steps.toString());
+        assertTrue(steps.get(1).startsWith("intersect vehicle bitmap (vehicle = bus) rows="), steps.toString());
+        assertEquals("filter (days >= 3)", steps.get(2));
+        assertTrue(plan.getEstimates()[0] <= plan.getEstimates()[1]);
+
+        assertEquals(List.of("scan rows=900", "filter (days >= 3)"),
+                travels.plan(Main.parseQuery("days >= 3")).describe());
+    }
+
+    @Test
+    void plansMatchFullScan() {
+        Random random = new Random(5);
+        TravelRepository travels = dataset(random, 600);
+        for (int round = 0; round < 400; round++) {
+            String query = randomQuery(random);
+            assertSameRows(travels, Main.parseQuery(query), query);
+
+            // Indexes must follow mutations between queries
+            int id = 100 + random.nextInt(900);
+            if (random.nextBoolean()) {
+                travels.remove(id);
+            } else if (!travels.replace(travel(random, id))) {
+                travels.add(travel(random, id));
+            }
+        }
+    }
+
+    private static void assertSameRows(TravelRepository travels, List<Condition> conditions, String query) {
+        QueryPlan plan = travels.plan(conditions);
+        QueryPlan scan = new QueryPlan(List.of(), new int[0], conditions, travels.size());
+
+        List<Integer> expected = new ArrayList<>();
+        travels.find(scan, travel -> expected.add(travel.getId()));
+        List<Integer> actual = new ArrayList<>();
+        travels.find(plan, travel -> actual.add(travel.getId()));
+
+        assertEquals(expected, actual, query + " planned as " + plan.describe());
+        assertEquals(expected.size(), travels.count(plan), query);
+    }
+
+    private static String randomQuery(Random random) {
+        List<String> conditions = new ArrayList<>();
+        int count = 1 + random.nextInt(4);
+        for (int i = 0; i < count; i++) {
+            LocalDate date = START.plusDays(random.nextInt(400));
+            switch (random.nextInt(8)) {
+                case 0:
+                    conditions.add("city = " + CITIES[random.nextInt(CITIES.length)].toLowerCase());
+                    break;
+                case 1:
+                    conditions.add("vehicle = " + VEHICLES[random.nextInt(VEHICLES.length)].name().toLowerCase());
+                    break;
+                case 2:
+                    conditions.add("date between " + date.format(Main.DATE_FORMATTER) + " and "
+                            + date.plusDays(random.nextInt(60)).format(Main.DATE_FORMATTER));
+                    break;
+                case 3:
+                    conditions.add("days " + operator(random) + " " + (1 + random.nextInt(14)));
+                    break;
+                case 4:
+                    conditions.add("price " + operator(random) + " " + random.nextInt(1000) / 2.0);
+                    break;
+                case 5:
+                    conditions.add("id " + operator(random) + " " + (100 + random.nextInt(900)));
+                    break;
+                case 6:
+                    conditions.add("active = " + date.format(Main.DATE_FORMATTER));
+                    break;
+                default:
+                    conditions.add("active between " + date.format(Main.DATE_FORMATTER) + " and "
+                            + date.plusDays(random.nextInt(10)).format(Main.DATE_FORMATTER));
+            }
+        }
+        return String.join(" and ", conditions);
+    }
+
+    private static String operator(Random random) {
+        return new String[]{"=", "<", "<=", ">", ">="}[random.nextInt(5)];
+    }
+
+    private static TravelRepository dataset(Random random, int rows) {
+        TravelRepository travels = new TravelRepository(new ObjectTravelStore());
+        int[] ids = random.ints(100, 1000).distinct().limit(rows).toArray();
+        Arrays.stream(ids).forEach(id -> travels.append(travel(random, id)));
+        return travels;
+    }
+
+    private static Travel travel(Random random, int id) {
+        return new Travel(id, CITIES[random.nextInt(CITIES.length)], START.plusDays(random.nextInt(365)),
+                1 + random.nextInt(14), random.nextInt(1000) / 2.0, VEHICLES[random.nextInt(VEHICLES.length)]);
+    }
+
+    private static void assertError(String message, String query) {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> Main.parseQuery(query));
+        assertEquals(message, error.getMessage(), query);
+    }
+}
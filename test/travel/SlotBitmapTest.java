@@ -0,0 +1,126 @@
+package travel;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Compressed slot bitmaps against java.util.BitSet, and the bitmap-backed counts and aggregates
+class SlotBitmapTest {
+    @Test
+    void matchesBitSetAcrossChunkConversions() {
+        Random random = new Random(13);
+        for (int round = 0; round < 20; round++) {
+            SlotBitmap bitmap = new SlotBitmap();
+            BitSet expected = new BitSet();
+            // Dense phases push chunks past the array limit into bitmaps, sparse phases drain them again
+            int density = round % 2 == 0 ? 1 << 17 : 1 << 20;
+            for (int step = 0; step < 30000; step++) {
+                int slot = random.nextInt(density);
+                if (random.nextInt(3) == 0) {
+                    bitmap.remove(slot);
+                    expected.clear(slot);
+                } else {
+                    bitmap.add(slot);
+                    expected.set(slot);
+                }
+            }
+            assertSame(expected, bitmap);
+            for (int slot = expected.nextSetBit(0); slot >= 0; slot = expected.nextSetBit(slot + 1)) {
+                if (random.nextBoolean()) {
+                    bitmap.remove(slot);
+                    expected.clear(slot);
+                }
+            }
+            assertSame(expected, bitmap);
+        }
+    }
+
+    @Test
+    void intersectsAndUnitesLikeBitSet() {
+        Random random = new Random(17);
+        for (int round = 0; round < 50; round++) {
+            SlotBitmap left = new SlotBitmap();
+            SlotBitmap right = new SlotBitmap();
+            BitSet leftExpected = new BitSet();
+            BitSet rightExpected = new BitSet();
+            fill(random, left, leftExpected, random.nextInt(10000));
+            fill(random, right, rightExpected, random.nextInt(10000));
+
+            BitSet and = (BitSet) leftExpected.clone();
+            and.and(rightExpected);
+            assertSame(and, left.and(right));
+            assertSame(and, right.and(left));
+
+            BitSet or = (BitSet) leftExpected.clone();
+            or.or(rightExpected);
+            assertSame(or, left.or(right));
+        }
+    }
+
+    @Test
+    void countsAndAveragesThroughBitmaps() {
+        Random random = new Random(19);
+        String[] cities = {"Riga", "Rome", "Oslo"};
+        VehicleType[] vehicles = VehicleType.values();
+        TravelRepository travels = new TravelRepository(new ColumnarTravelStore());
+        List<Travel> rows = new ArrayList<>();
+        for (int id = 100; id < 1000; id++) {
+            Travel travel = new Travel(id, cities[random.nextInt(cities.length)], LocalDate.of(2022, 1, 1),
+                    3, random.nextInt(1000) / 4.0, vehicles[random.nextInt(vehicles.length)]);
+            travels.append(travel);
+            rows.add(travel);
+        }
+
+        for (String city : cities) {
+            for (VehicleType vehicle : vehicles) {
+                String query = "city = " + city.toLowerCase() + " and vehicle = " + vehicle.name().toLowerCase();
+                List<Travel> matching = rows.stream()
+                        .filter(travel -> travel.getCity().equals(city) && travel.getVehicle() == vehicle)
+                        .collect(Collectors.toList());
+                QueryPlan plan = travels.plan(Main.parseQuery(query));
+                assertTrue(plan.getFilters().isEmpty(), query);
+                assertEquals(matching.size(), travels.count(plan), query);
+
+                PriceAggregate aggregate = travels.aggregate(plan);
+                assertEquals(matching.size(), aggregate.getCount(), query);
+                assertEquals(matching.stream().mapToDouble(Travel::getPrice).min().orElse(Double.POSITIVE_INFINITY),
+                        aggregate.getMin(), query);
+                assertEquals(matching.stream().mapToDouble(Travel::getPrice).max().orElse(Double.NEGATIVE_INFINITY),
+                        aggregate.getMax(), query);
+            }
+        }
+    }
+
+    private static void fill(Random random, SlotBitmap bitmap, BitSet expected, int count) {
+        // Clustered slots, so that both array and bitmap chunks occur
+        int base = random.nextInt(4) << 16;
+        for (int i = 0; i < count; i++) {
+            int slot = base + random.nextInt(random.nextBoolean() ? 1 << 13 : 1 << 18);
+            bitmap.add(slot);
+            expected.set(slot);
+        }
+    }
+
+    private static void assertSame(BitSet expected, SlotBitmap bitmap) {
+        assertEquals(expected.cardinality(), bitmap.cardinality());
+        BitSet actual = new BitSet();
+        int[] previous = {-1};
+        bitmap.forEach(slot -> {
+            assertTrue(slot > previous[0], "slots out of order");
+            previous[0] = slot;
+            actual.set(slot);
+        });
+        assertEquals(expected, actual);
+        for (int slot = expected.nextSetBit(0); slot >= 0; slot = expected.nextSetBit(slot + 1)) {
+            assertTrue(bitmap.contains(slot));
+        }
+        assertFalse(bitmap.contains(expected.nextClearBit(0)));
+    }
+}
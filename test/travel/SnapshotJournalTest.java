@@ -0,0 +1,59 @@
+package travel;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Starting from db.bin with a journal: the journal header is checked against what db.bin recorded
+class SnapshotJournalTest {
+    @RegisterExtension
+    final TemporaryDataFile files = new TemporaryDataFile().withJournal().withSnapshot();
+
+    @Test
+    void replaysJournalOverBinarySnapshotWithoutReadingDataFile() throws IOException {
+        Main.createDefaultFile();
+        TravelRepository travels = Main.readDataFromFile();
+        assertTrue(Files.exists(Main.snapshotFile));
+        travels.add(new Travel(106, "Riga", LocalDate.of(2022, 1, 1), 3, 100.5, VehicleType.BUS));
+        Main.persist(travels, "ADD;106;Riga;01/01/2022;3;100.50;BUS", files.session());
+
+        // Same size and modification time, other bytes: db.bin still matches, and a checksum read from db.csv
+        // would no longer match the journal header
+        FileTime modified = Files.getLastModifiedTime(Main.dataFile);
+        byte[] content = new byte[(int) Files.size(Main.dataFile)];
+        Arrays.fill(content, (byte) 'x');
+        Files.write(Main.dataFile, content);
+        Files.setLastModifiedTime(Main.dataFile, modified);
+
+        TravelRepository restarted = Main.readDataFromFile();
+        assertEquals(6, restarted.size());
+        assertTrue(restarted.containsId(106));
+        assertTrue(Files.exists(Main.journalFile));
+    }
+
+    @Test
+    void compactionRecordsChecksumOfRewrittenFile() throws IOException {
+        Main.createDefaultFile();
+        TravelRepository travels = Main.readDataFromFile();
+        travels.remove(101);
+        Main.persist(travels, "DEL;101", files.session());
+        Main.compactJournal(travels, files.session());
+
+        CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(Main.dataFile));
+        assertEquals(crc.getValue(), Main.dataFileChecksum);
+        assertFalse(Files.exists(Main.journalFile));
+
+        // The next start rebuilds db.bin for the compacted file and records the same checksum
+        assertEquals(4, Main.readDataFromFile().size());
+        assertEquals(crc.getValue(), BinarySnapshot.sourceChecksum(Main.snapshotFile));
+    }
+}
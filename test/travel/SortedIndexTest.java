@@ -0,0 +1,84 @@
+package travel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The chunked sorted index against a sorted list of (value, slot) pairs, through enough rows that chunks
+// split, merge and share their slots, and through rebuilds
+class SortedIndexTest {
+    private static final double[] SPECIAL = {-0.0, 0.0, Double.NaN, Double.POSITIVE_INFINITY};
+
+    @Test
+    void matchesSortedListThroughGrowthAndShrinking() {
+        Random random = new Random(31);
+        double[] values = new double[20000];
+        SortedIndex index = new SortedIndex(slot -> values[slot]);
+        List<Integer> live = new ArrayList<>();
+        Deque<Integer> free = new ArrayDeque<>();
+        for (int slot = 0; slot < values.length; slot++) {
+            free.add(slot);
+        }
+        // Grow to several thousand rows, shrink to a handful, then grow again
+        for (int phase = 0; phase < 4; phase++) {
+            int target = phase % 2 == 0 ? 6000 : 20;
+            for (int step = 0; step < 12000; step++) {
+                boolean grow = live.size() < target ? random.nextInt(4) > 0 : random.nextInt(4) == 0;
+                if (grow && !free.isEmpty()) {
+                    int slot = free.poll();
+                    values[slot] = random.nextInt(20) == 0 ? SPECIAL[random.nextInt(SPECIAL.length)]
+                            : random.nextInt(500);
+                    index.added(slot);
+                    live.add(slot);
+                } else if (!live.isEmpty()) {
+                    int slot = live.remove(random.nextInt(live.size()));
+                    index.removed(slot);
+                    free.add(slot);
+                }
+                if (step % 97 == 0) {
+                    assertMatches(index, values, live, random, "phase " + phase + " step " + step);
+                }
+            }
+            assertMatches(index, values, live, random, "phase " + phase);
+        }
+
+        index.rebuild(live.stream().mapToInt(Integer::intValue).toArray(), live.size());
+        assertMatches(index, values, live, random, "rebuilt");
+        for (int i = 0; i < 3000 && !live.isEmpty(); i++) {
+            index.removed(live.remove(random.nextInt(live.size())));
+        }
+        assertMatches(index, values, live, random, "after rebuild");
+    }
+
+    private static void assertMatches(SortedIndex index, double[] values, List<Integer> live, Random random,
+                                      String context) {
+        List<Integer> expected = new ArrayList<>(live);
+        expected.sort(Comparator.<Integer>comparingDouble(slot -> values[slot] + 0.0).thenComparing(slot -> slot));
+        assertEquals(expected.size(), index.size(), context);
+        int[] walked = new int[expected.size()];
+        int[] filled = new int[1];
+        index.forEach(0, index.size(), slot -> walked[filled[0]++] = slot);
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), walked, context);
+        for (int i = 0; i < 20 && !expected.isEmpty(); i++) {
+            int position = random.nextInt(expected.size());
+            assertEquals(expected.get(position), index.slotAt(position), context);
+        }
+
+        for (int i = 0; i < 20; i++) {
+            double low = random.nextInt(520) - 10;
+            double high = low + random.nextInt(100);
+            long below = expected.stream().filter(slot -> Double.compare(values[slot] + 0.0, low) < 0).count();
+            long upTo = expected.stream().filter(slot -> Double.compare(values[slot] + 0.0, high) <= 0).count();
+            assertEquals(below, index.lowerBound(low), context + " lower bound " + low);
+            assertEquals(upTo, index.upperBound(high), context + " upper bound " + high);
+            BitSet inRange = new BitSet();
+            expected.stream().filter(slot -> values[slot] >= low && values[slot] <= high).forEach(inRange::set);
+            assertEquals(inRange.cardinality(), index.count(low, high), context);
+            assertEquals(inRange, index.slots(low, high), context);
+        }
+        assertEquals(expected.stream().filter(slot -> !Double.isNaN(values[slot])).count(),
+                index.lowerBound(Double.NaN), context + " NaN sorts last");
+    }
+}
@@ -0,0 +1,147 @@
+package travel;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sorted print views through the commands: each key orders print with ties in file order, the views follow
+// add, edit and del, and only compact writes db.csv in a view's order
+class SortedViewTest {
+    private static final String[] KEYS = {"id", "city", "date", "days", "price"};
+
+    @RegisterExtension
+    final TemporaryDataFile files = new TemporaryDataFile();
+
+    private TravelRepository travels;
+
+    @BeforeEach
+    void loadTravels() throws IOException {
+        Files.write(Main.dataFile, List.of(
+                "105;oslo;10/03/2022;4;30.5;BUS",
+                "102;Riga;01/02/2022;7;12.0;TRAIN",
+                "109;amsterdam;10/03/2022;4;30.5;PLANE",
+                "101;Oslo;15/01/2023;2;99.9;BUS",
+                "107;bergen;01/01/2021;7;12.0;BOAT"));
+        travels = Main.readDataFromFile();
+    }
+
+    @Test
+    void eachKeyOrdersPrintWithTiesInFileOrder() {
+        assertEquals(List.of(102, 107, 105, 109, 101), printedIds("price"));
+        // Cities compare without case, so oslo and Oslo tie and keep their file order
+        assertEquals(List.of(109, 107, 105, 101, 102), printedIds("city"));
+        assertEquals(List.of(101, 105, 109, 102, 107), printedIds("days"));
+        assertEquals(List.of(101, 102, 105, 107, 109), printedIds("id"));
+        assertEquals(List.of(107, 102, 105, 109, 101), printedIds("date"));
+        assertEquals(List.of(105, 102, 109, 101, 107), printedIds("file"));
+        assertEquals(List.of(107, 102, 105, 109, 101), printedIds(""));
+
+        files.clearOutput();
+        Main.execute("sort vehicle", travels, files.session());
+        assertEquals("wrong key", files.output().trim());
+    }
+
+    @Test
+    void viewsFollowAddEditAndDel() {
+        // Build every view first, so that they are kept up to date rather than rebuilt
+        for (String key : KEYS) {
+            printedIds(key);
+        }
+        Random random = new Random(41);
+        String[] cities = {"oslo", "Riga", "amsterdam", "Bergen", "kyiv"};
+        for (int step = 0; step < 400; step++) {
+            int id = 100 + random.nextInt(60);
+            String city = cities[random.nextInt(cities.length)];
+            String date = String.format("%02d/0%d/2022", 1 + random.nextInt(28), 1 + random.nextInt(3));
+            int days = 1 + random.nextInt(5);
+            String price = (10 + random.nextInt(5)) + ".5";
+            switch (random.nextInt(3)) {
+                case 0:
+                    Main.execute("add " + id + ";" + city + ";" + date + ";" + days + ";" + price + ";bus", travels, files.session());
+                    break;
+                case 1:
+                    // Moves the row within the views but never within the file
+                    Main.execute("edit " + id + ";" + city + ";;" + days + ";" + price + ";", travels, files.session());
+                    break;
+                default:
+                    Main.execute("del " + id, travels, files.session());
+            }
+            if (step % 20 == 0) {
+                for (String key : KEYS) {
+                    assertEquals(expectedIds(key), printedIds(key), "step " + step + " sort " + key);
+                }
+            }
+        }
+    }
+
+    @Test
+    void onlyCompactRewritesFileInViewOrder() throws IOException {
+        Main.execute("sort price", travels, files.session());
+        Main.execute("add 103;Kyiv;05/05/2022;3;20.0;bus", travels, files.session());
+        Main.execute("edit 105;;;;10.0;", travels, files.session());
+        Main.execute("del 109", travels, files.session());
+        Main.execute("print", travels, files.session());
+        Main.execute("find 50", travels, files.session());
+        // Every mutation rewrote db.csv, each time in file order
+        assertEquals(List.of(103, 105, 102, 101, 107), fileIds());
+        assertEquals(List.of(105, 102, 107, 103, 101), printedIds("price"));
+
+        Main.execute("compact", travels, files.session());
+        assertEquals(List.of(105, 102, 107, 103, 101), fileIds());
+        assertEquals(List.of(105, 102, 107, 103, 101), printedIds("file"));
+        assertEquals(List.of(105, 102, 107, 103, 101), Main.readDataFromFile().stream().map(Travel::getId)
+                .collect(Collectors.toList()));
+    }
+
+    // IDs print shows after sorting by the key
+    private List<Integer> printedIds(String key) {
+        Main.execute(key.isEmpty() ? "sort" : "sort " + key, travels, files.session());
+        files.clearOutput();
+        Main.execute("print", travels, files.session());
+        List<Integer> ids = new ArrayList<>();
+        for (String line : files.output().split("\n")) {
+            String first = line.trim().split("\\s+")[0];
+            if (!first.isEmpty() && first.chars().allMatch(Character::isDigit)) {
+                ids.add(Integer.parseInt(first));
+            }
+        }
+        files.clearOutput();
+        return ids;
+    }
+
+    // IDs in file order, stably sorted by the key as the view should have them
+    private List<Integer> expectedIds(String key) {
+        SortKey sortKey = SortKey.valueOf(key.toUpperCase());
+        Comparator<Travel> order;
+        switch (sortKey) {
+            case ID:
+                order = Comparator.comparingInt(Travel::getId);
+                break;
+            case CITY:
+                order = Comparator.comparing(Travel::getCity, String.CASE_INSENSITIVE_ORDER);
+                break;
+            case DATE:
+                order = Comparator.comparing(Travel::getDate);
+                break;
+            case DAYS:
+                order = Comparator.comparingInt(Travel::getDays);
+                break;
+            default:
+                order = Comparator.comparingDouble(Travel::getPrice);
+        }
+        return travels.stream().sorted(order).map(Travel::getId).collect(Collectors.toList());
+    }
+
+    private static List<Integer> fileIds() throws IOException {
+        return Files.readAllLines(Main.dataFile).stream()
+                .map(line -> Integer.parseInt(line.substring(0, line.indexOf(';'))))
+                .collect(Collectors.toList());
+    }
+}
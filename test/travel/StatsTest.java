@@ -0,0 +1,106 @@
+package travel;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Latency histograms against exact percentiles, and the stats command with instrumentation on and off
+class StatsTest {
+    @RegisterExtension
+    final TemporaryDataFile files = new TemporaryDataFile();
+
+    @Test
+    void percentilesStayWithinBucketPrecision() {
+        Random random = new Random(23);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // Spread over many powers of two, from a few nanoseconds to seconds
+            values[i] = (long) Math.exp(random.nextDouble() * 21);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertEquals(values.length, histogram.count());
+        assertEquals(values[values.length - 1], histogram.max());
+        for (double quantile : new double[]{0.0, 0.5, 0.9, 0.99, 0.999, 1.0}) {
+            long exact = values[(int) Math.max(0, Math.ceil(quantile * values.length) - 1)];
+            long reported = histogram.percentile(quantile);
+            assertTrue(reported >= exact, quantile + ": " + reported + " < " + exact);
+            assertTrue(reported - exact <= Math.max(exact / 16, 0), quantile + ": " + reported + " vs " + exact);
+        }
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 0; value < 16; value++) {
+            histogram.record(value);
+        }
+        histogram.record(-5);
+        assertEquals(17, histogram.count());
+        assertEquals(0, histogram.percentile(0.0));
+        assertEquals(7, histogram.percentile(0.5));
+        assertEquals(15, histogram.percentile(1.0));
+    }
+
+    @Test
+    void concurrentRecordingLosesNothing() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(1000 + i);
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(80_000, histogram.count());
+        assertEquals(10_999, histogram.max());
+    }
+
+    @Test
+    void disabledStatsCostNoClockReads() {
+        Main.statsEnabled = false;
+        Stats.configure();
+        assertEquals(0, Stats.start());
+        Stats.print(new String[0], files.session().out);
+        assertEquals("stats disabled", files.output().trim());
+    }
+
+    @Test
+    void statsCommandReportsCommandsPhasesAndBytes() {
+        Main.statsEnabled = true;
+        Stats.configure();
+        Main.createDefaultFile();
+        TravelRepository travels = Main.readDataFromFile();
+        Main.execute("add 106;riga;01/01/2022;3;100.5;bus", travels, files.session());
+        Main.execute("print", travels, files.session());
+        Main.execute("avg", travels, files.session());
+        files.clearOutput();
+
+        Main.execute("stats", travels, files.session());
+        String report = files.output();
+        assertTrue(report.startsWith(String.format("%-12s%10s", "Command", "Count")), report);
+        assertTrue(report.lines().anyMatch(line -> line.startsWith("add ")), report);
+        assertTrue(report.lines().anyMatch(line -> line.startsWith("print ")), report);
+        assertTrue(report.lines().anyMatch(line -> line.startsWith("file write ")), report);
+        assertTrue(report.lines().anyMatch(line -> line.startsWith("render ")), report);
+        String bytes = report.lines().filter(line -> line.startsWith("bytes written=")).findFirst().orElseThrow();
+        assertFalse(bytes.startsWith("bytes written=0 "), bytes);
+        assertFalse(bytes.endsWith(" rendered=0"), bytes);
+
+        files.clearOutput();
+        Main.execute("stats now", travels, files.session());
+        assertEquals("wrong field count", files.output().trim());
+    }
+}
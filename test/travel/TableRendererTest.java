@@ -0,0 +1,111 @@
+package travel;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// TableRenderer output against a golden file, and against the printf table it replaced
+class TableRendererTest {
+    private final PrintStream console = System.out;
+
+    @BeforeEach
+    void silenceConsole() {
+        System.setOut(new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void restoreConsole() {
+        System.setOut(console);
+    }
+
+    @Test
+    void matchesGoldenFile() throws IOException {
+        String expected;
+        try (InputStream golden = TableRendererTest.class.getResourceAsStream("/golden/table.txt")) {
+            assertNotNull(golden);
+            expected = new String(golden.readAllBytes(), StandardCharsets.UTF_8)
+                    .replace("\n", System.lineSeparator());
+        }
+        assertEquals(expected, render(edgeCases()));
+    }
+
+    @Test
+    void matchesPrintfTable() {
+        assertEquals(printf(edgeCases()), render(edgeCases()));
+    }
+
+    // Enough rows to flush the buffer several times mid-table
+    @Test
+    void matchesPrintfTableAcrossFlushes() {
+        Random random = new Random(11);
+        VehicleType[] vehicles = VehicleType.values();
+        List<Travel> travels = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            travels.add(new Travel(100 + random.nextInt(900), "City " + random.nextInt(1000),
+                    LocalDate.of(2000, 1, 1).plusDays(random.nextInt(20000)), 1 + random.nextInt(400),
+                    random.nextInt(10_000_000) / 100.0, vehicles[random.nextInt(vehicles.length)]));
+        }
+        assertEquals(printf(travels), render(travels));
+    }
+
+    private static List<Travel> edgeCases() {
+        List<Travel> travels = new ArrayList<>();
+        travels.add(new Travel(101, "Daugavpils", LocalDate.of(2021, 7, 3), 5, 150.5, VehicleType.TRAIN));
+        travels.add(new Travel(102, "Rome", LocalDate.of(2021, 5, 15), 7, 300.0, VehicleType.BUS));
+        travels.add(new Travel(103, "Saint-Petersburg-on-the-Neva", LocalDate.of(2023, 12, 31), 1234567,
+                0.0, VehicleType.PLANE));
+        travels.add(new Travel(104, "  Helsinki  ", LocalDate.of(999, 1, 9), 3, 0.005, VehicleType.BOAT));
+        travels.add(new Travel(105, "Rīga", LocalDate.of(10000, 2, 29), 12, 0.015, VehicleType.PLANE));
+        travels.add(new Travel(1000, "Oslo", LocalDate.of(2022, 1, 1), 1, 9999999.995, VehicleType.BUS));
+        travels.add(new Travel(7, "Paris", LocalDate.of(2022, 1, 1), 2, 12345678.9, VehicleType.TRAIN));
+        travels.add(new Travel(108, "Vilnius", LocalDate.of(2022, 1, 1), 3, -0.0, VehicleType.BOAT));
+        travels.add(new Travel(109, "Tallinn", LocalDate.of(2022, 1, 1), 4, -12.5, VehicleType.BUS));
+        travels.add(new Travel(110, "Kaunas", LocalDate.of(2022, 1, 1), 5, Double.NaN, VehicleType.BUS));
+        travels.add(new Travel(111, "Tartu", LocalDate.of(2022, 1, 1), 6, Double.POSITIVE_INFINITY,
+                VehicleType.TRAIN));
+        travels.add(new Travel(112, "", LocalDate.of(-5, 6, 7), 0, 1e300, VehicleType.PLANE));
+        return travels;
+    }
+
+    private static String render(List<Travel> travels) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+        TableRenderer renderer = new TableRenderer(out);
+        renderer.header();
+        travels.forEach(renderer::row);
+        renderer.footer();
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    // The table as printTable printed it with printf before TableRenderer
+    private static String printf(List<Travel> travels) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+        String divider = "------------------------------------------------------------";
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+        out.println(divider);
+        out.printf("%-4s%-21s%-11s%-6s%-10s%-9s%n", "ID", "City", "Date", "Days", "Price", " Vehicle");
+        out.println(divider);
+        for (Travel travel : travels) {
+            out.printf("%-4d%-21s%-11s%6d%10s%-9s%n", travel.getId(), travel.getCity().trim(),
+                    travel.getDate().format(formatter).trim(), travel.getDays(),
+                    Main.DECIMAL_FORMAT.get().format(travel.getPrice()).trim(),
+                    " " + travel.getVehicle().toString().trim());
+        }
+        out.println(divider);
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+}
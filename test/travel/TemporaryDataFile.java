@@ -0,0 +1,95 @@
+package travel;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+// Runs each test against db.csv in a fresh temporary directory with console output captured, and with a
+// session of its own whose output is captured with it, then puts back the console, the default data file and every persistence and stats option a test may have turned on.
+// Registered with @RegisterExtension; extension callbacks run before the test's own @BeforeEach methods
+class TemporaryDataFile implements BeforeEachCallback, AfterEachCallback {
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private boolean journal;
+    private boolean snapshot;
+    private PrintStream console;
+    private Session session;
+    private Path directory;
+
+    // Start every test with the journal turned on
+    TemporaryDataFile withJournal() {
+        journal = true;
+        return this;
+    }
+
+    // Start every test with the binary snapshot turned on
+    TemporaryDataFile withSnapshot() {
+        snapshot = true;
+        return this;
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) throws IOException {
+        directory = Files.createTempDirectory("travel-test");
+        Main.useDataFile(directory.resolve("db.csv"));
+        Main.journalEnabled = journal;
+        Main.snapshotEnabled = snapshot;
+        output.reset();
+        console = System.out;
+        PrintStream captured = new PrintStream(output, true, StandardCharsets.UTF_8);
+        System.setOut(captured);
+        session = new Session(captured);
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) throws IOException {
+        if (Main.groupCommitter != null) {
+            Main.groupCommitter.stop();
+            Main.groupCommitter = null;
+        }
+        System.setOut(console);
+        Main.journalEnabled = false;
+        Main.snapshotEnabled = false;
+        Main.statsEnabled = false;
+        Stats.configure();
+        Main.useDataFile(Paths.get(Main.FILE_NAME));
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    // Directory holding db.csv and its journal and snapshot
+    Path directory() {
+        return directory;
+    }
+
+    // Session for running commands, printing where System.out does
+    Session session() {
+        return session;
+    }
+
+    // Everything printed to System.out since the test started or since the last clearOutput
+    String output() {
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    void clearOutput() {
+        output.reset();
+    }
+}
@@ -0,0 +1,159 @@
+package travel;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The line-protocol server on localhost: queued batches, disconnects and concurrent clients
+class TravelServerTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @TempDir
+    Path directory;
+
+    private TravelRepository travels;
+    private TravelServer server;
+    private int port;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        Main.useDataFile(directory.resolve("db.csv"));
+        Main.createDefaultFile();
+        travels = Main.readDataFromFile();
+        server = new TravelServer(travels);
+        port = server.start(0);
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        server.stop();
+        Main.useDataFile(Paths.get(Main.FILE_NAME));
+    }
+
+    @Test
+    void openBatchDoesNotBlockOtherClients() throws IOException {
+        try (LineClient batch = new LineClient(port); LineClient other = new LineClient(port)) {
+            assertEquals(List.of("started"), batch.request("begin"));
+            assertEquals(List.of("queued"), batch.request("add 106;riga;01/01/2022;3;100.5;bus"));
+            assertEquals(List.of("queued"), batch.request("add 107;oslo;01/13/2022;3;100.5;bus"));
+            assertEquals(List.of("batch already started"), batch.request("begin"));
+
+            // Neither the read nor the write lock is held while the batch is open
+            assertTimeoutPreemptively(TIMEOUT, () -> {
+                assertEquals(List.of("added"), other.request("add 108;rome;02/02/2022;4;50;train"));
+                assertEquals(List.of("count=6"), other.request("count"));
+            });
+            assertFalse(travels.containsId(106));
+
+            assertEquals(List.of("added", "wrong date", "committed"), batch.request("commit"));
+            assertEquals(List.of("count=7"), other.request("count"));
+            assertEquals(List.of("no batch"), other.request("commit"));
+        }
+        assertEquals(7, Files.readAllLines(Main.dataFile).size());
+    }
+
+    @Test
+    void abortAndDisconnectDropQueuedCommands() throws IOException {
+        try (LineClient batch = new LineClient(port)) {
+            batch.request("begin");
+            batch.request("del 101");
+            assertEquals(List.of("aborted"), batch.request("abort"));
+            batch.request("begin");
+            batch.request("del 102");
+        }
+        try (LineClient other = new LineClient(port)) {
+            assertTimeoutPreemptively(TIMEOUT, () -> assertEquals(List.of("deleted"), other.request("del 103")));
+            assertEquals(List.of("count=4"), other.request("count"));
+        }
+        assertTrue(travels.containsId(101));
+        assertTrue(travels.containsId(102));
+        assertFalse(travels.containsId(103));
+    }
+
+    // Each connection is a session of its own, so sort and paging apply only to it
+    @Test
+    void connectionsKeepTheirOwnOrderAndPages() throws IOException {
+        try (LineClient sorted = new LineClient(port); LineClient other = new LineClient(port)) {
+            assertEquals(List.of("sorted"), sorted.request("sort price"));
+            assertEquals(List.of(101, 104), ids(sorted.request("print limit=2")));
+            assertEquals(List.of(101, 102, 103, 104, 105), ids(other.request("print")));
+            assertEquals(List.of("no more pages"), other.request("next"));
+            assertEquals(List.of(102, 103), ids(sorted.request("next")));
+        }
+    }
+
+    // Load generator: writers and readers on their own connections at once
+    @Test
+    void concurrentClientsKeepEveryWrite() throws Exception {
+        int clients = 8;
+        int addsPerClient = 50;
+        ExecutorService pool = Executors.newFixedThreadPool(clients * 2);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                int first = 200 + c * addsPerClient;
+                results.add(pool.submit(() -> {
+                    try (LineClient client = new LineClient(port)) {
+                        for (int id = first; id < first + addsPerClient; id++) {
+                            // Every other write goes through a batch of one
+                            if (id % 2 == 0) {
+                                assertEquals(List.of("added"), client.request("add " + id + ";riga;01/01/2022;3;10;bus"));
+                            } else {
+                                client.request("begin");
+                                client.request("add " + id + ";riga;01/01/2022;3;10;bus");
+                                assertEquals(List.of("added", "committed"), client.request("commit"));
+                            }
+                        }
+                    }
+                    return null;
+                }));
+                results.add(pool.submit(() -> {
+                    try (LineClient client = new LineClient(port)) {
+                        for (int i = 0; i < addsPerClient; i++) {
+                            assertTrue(client.request("count vehicle = bus").get(0).startsWith("count="));
+                            assertFalse(client.request("avg").isEmpty());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(5 + clients * addsPerClient, travels.size());
+        try (LineClient client = new LineClient(port)) {
+            assertEquals(List.of("count=" + (5 + clients * addsPerClient)), client.request("count"));
+        }
+        assertEquals(5 + clients * addsPerClient, Files.readAllLines(Main.dataFile).size());
+    }
+
+    // IDs of the table rows in a response
+    private static List<Integer> ids(List<String> lines) {
+        List<Integer> ids = new ArrayList<>();
+        for (String line : lines) {
+            String first = line.trim().split("\\s+")[0];
+            if (!first.isEmpty() && first.chars().allMatch(Character::isDigit)) {
+                ids.add(Integer.parseInt(first));
+            }
+        }
+        return ids;
+    }
+}